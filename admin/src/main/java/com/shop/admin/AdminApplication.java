@@ -1,12 +1,19 @@
 package com.shop.admin;
 
+import com.shop.common.config.StartupTimingReport;
+import com.shop.common.config.VirtualThreadPinningMonitor;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
+@Import({VirtualThreadPinningMonitor.class, StartupTimingReport.class})
 public class AdminApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(AdminApplication.class, args);
+        SpringApplication application = new SpringApplication(AdminApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(StartupTimingReport.TIMELINE_CAPACITY));
+        application.run(args);
     }
 }
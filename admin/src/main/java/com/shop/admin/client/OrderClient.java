@@ -1,66 +1,57 @@
 package com.shop.admin.client;
 
 import com.shop.admin.dto.OrderView;
+import com.shop.common.client.InterServiceHttpClient;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Calls the order service on behalf of the signed-in admin.
+ */
 @Component
 public class OrderClient {
 
-    private final RestTemplate restTemplate;
+    private final InterServiceHttpClient http;
 
-    public OrderClient(RestTemplateBuilder builder) {
-        String orderServiceUrl = System.getenv().getOrDefault("ORDER_SERVICE_URL", "http://order:3400");
-        this.restTemplate = builder.rootUri(orderServiceUrl).build();
+    public OrderClient(InterServiceHttpClient orderServiceHttpClient) {
+        this.http = orderServiceHttpClient;
     }
 
     public List<OrderView> listAll(HttpServletRequest request) {
-        HttpHeaders headers = buildHeaders(request);
-        ResponseEntity<List<OrderView>> response = restTemplate.exchange(
+        return http.get(
                 "/api/admin/orders",
-                HttpMethod.GET,
-                new HttpEntity<>(headers),
-                new ParameterizedTypeReference<>() {}
-        );
-        return response.getBody();
+                buildHeaders(request),
+                new ParameterizedTypeReference<List<OrderView>>() {}
+        ).getBody();
     }
 
     public OrderView confirm(String orderId, String comment, HttpServletRequest request) {
-        HttpHeaders headers = buildHeaders(request);
         Map<String, String> body = comment != null && !comment.isBlank()
                 ? Map.of("comment", comment)
                 : Map.of();
-        ResponseEntity<OrderView> response = restTemplate.exchange(
+        return http.post(
                 "/api/admin/orders/{id}/confirm",
-                HttpMethod.POST,
-                new HttpEntity<>(body, headers),
+                buildHeaders(request),
+                body,
                 OrderView.class,
                 orderId
-        );
-        return response.getBody();
+        ).getBody();
     }
 
     public OrderView cancel(String orderId, String reason, HttpServletRequest request) {
-        HttpHeaders headers = buildHeaders(request);
         Map<String, String> body = reason != null ? Map.of("reason", reason) : Map.of();
-        ResponseEntity<OrderView> response = restTemplate.exchange(
+        return http.post(
                 "/api/admin/orders/{id}/cancel",
-                HttpMethod.POST,
-                new HttpEntity<>(body, headers),
+                buildHeaders(request),
+                body,
                 OrderView.class,
                 orderId
-        );
-        return response.getBody();
+        ).getBody();
     }
 
     private HttpHeaders buildHeaders(HttpServletRequest request) {
@@ -0,0 +1,20 @@
+package com.shop.admin.config;
+
+import com.shop.common.client.InterServiceHttpClient;
+import com.shop.common.client.InterServiceHttpClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * One pooled client per upstream service.
+ */
+@Configuration
+@Import(InterServiceHttpClients.class)
+public class HttpClientConfig {
+
+    @Bean
+    public InterServiceHttpClient orderServiceHttpClient(InterServiceHttpClients clients) {
+        return clients.create("order-service", "order.service");
+    }
+}
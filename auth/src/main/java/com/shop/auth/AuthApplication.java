@@ -1,11 +1,18 @@
 package com.shop.auth;
 
+import com.shop.common.config.StartupTimingReport;
+import com.shop.common.config.VirtualThreadPinningMonitor;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
+@Import({VirtualThreadPinningMonitor.class, StartupTimingReport.class})
 public class AuthApplication {
     public static void main(String[] args) {
-        SpringApplication.run(AuthApplication.class, args);
+        SpringApplication application = new SpringApplication(AuthApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(StartupTimingReport.TIMELINE_CAPACITY));
+        application.run(args);
     }
 }
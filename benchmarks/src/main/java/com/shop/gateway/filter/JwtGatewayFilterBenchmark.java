@@ -0,0 +1,90 @@
+package com.shop.gateway.filter;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.adapter.DefaultServerWebExchange;
+import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Work the gateway filter does for every request, driven through {@link JwtGatewayFilter#filter}:
+ * public path matching alone, and JWT verification with the user headers it forwards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtGatewayFilterBenchmark {
+
+    private static final String SECRET = "changemechangemechangemechangeme";
+
+    private JwtGatewayFilter filter;
+    private String token;
+    private GatewayFilterChain chain;
+
+    // Built once: MockServerWebExchange would create a codec configurer per request and dwarf the filter.
+    private final ServerCodecConfigurer codecs = ServerCodecConfigurer.create();
+    private final DefaultWebSessionManager sessions = new DefaultWebSessionManager();
+    private final AcceptHeaderLocaleContextResolver locales = new AcceptHeaderLocaleContextResolver();
+
+    @Setup
+    public void setUp() {
+        filter = new JwtGatewayFilter(SECRET,
+                List.of("/api/auth/**", "/api/products/**", "/api/cart/**", "/api/checkout/**", "/actuator/health"));
+        token = Jwts.builder()
+                .setClaims(Map.of("uid", 42L, "role", "USER"))
+                .setSubject("jane")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+        chain = exchange -> Mono.empty();
+    }
+
+    @Benchmark
+    public void publicPaths(Blackhole blackhole) {
+        blackhole.consume(filter(MockServerHttpRequest.get("/api/products/15")));
+        blackhole.consume(filter(MockServerHttpRequest.get("/api/orders/my")));
+        blackhole.consume(filter(MockServerHttpRequest.post("/api/cart/items")));
+        blackhole.consume(filter(MockServerHttpRequest.get("/api/admin/orders")));
+    }
+
+    @Benchmark
+    public ServerWebExchange authenticated() {
+        return filter(MockServerHttpRequest.get("/api/orders/my").header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+    }
+
+    private ServerWebExchange filter(MockServerHttpRequest.BaseBuilder<?> request) {
+        ServerWebExchange exchange = new DefaultServerWebExchange(request.build(), new MockServerHttpResponse(),
+                sessions, codecs, locales);
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+}
@@ -0,0 +1,97 @@
+package com.shop.order.messaging;
+
+import com.shop.order.dto.OrderResponse;
+import com.shop.order.model.Order;
+import com.shop.order.model.OrderItem;
+import com.shop.order.model.OrderStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order mapping done on every order read ({@link OrderResponse#from}) and on checkout (the message
+ * {@link OrderMessagePublisher} hands to RabbitMQ, which is stubbed out here).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderMappingBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int itemCount;
+
+    private OrderMessagePublisher publisher;
+    private Order order;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        publisher = new OrderMessagePublisher(new RabbitTemplate() {
+            @Override
+            public void convertAndSend(String routingKey, Object message) {
+                blackhole.consume(message);
+            }
+        }, "orders.new");
+
+        order = new Order();
+        order.setId("ord-benchmark");
+        order.setCreatedAt(LocalDateTime.now());
+        order.setFullName("Jane Doe");
+        order.setEmail("jane@example.com");
+        order.setPhone("+380000000000");
+        order.setAddress("1 Main St");
+        order.setCity("Kharkiv");
+        order.setPostalCode("61000");
+        order.setDeliveryMethod("courier");
+        order.setPaymentMethod("card");
+        order.setCardLastFour("4242");
+        order.setStatus(OrderStatus.NEW);
+        order.setUserId(42L);
+
+        List<OrderItem> items = new ArrayList<>(itemCount);
+        BigDecimal total = BigDecimal.ZERO;
+        for (long id = 1; id <= itemCount; id++) {
+            OrderItem item = new OrderItem();
+            item.setId(id);
+            item.setOrder(order);
+            item.setProductId(id);
+            item.setProductName("Product " + id);
+            item.setQuantity(2);
+            item.setUnitPrice(BigDecimal.valueOf(id * 1999, 2));
+            item.setSubtotal(item.getUnitPrice().multiply(BigDecimal.valueOf(2)));
+            total = total.add(item.getSubtotal());
+            items.add(item);
+        }
+        order.setItems(items);
+        order.setTotalQuantity(itemCount * 2);
+        order.setTotalPrice(total);
+    }
+
+    @Benchmark
+    public OrderResponse orderResponse() {
+        return OrderResponse.from(order);
+    }
+
+    @Benchmark
+    public void messagePayload() {
+        publisher.publishOrderCreated(order);
+    }
+}
@@ -0,0 +1,84 @@
+package com.shop.order.service;
+
+import com.shop.order.client.dto.ProductDto;
+import com.shop.order.model.Cart;
+import com.shop.order.model.CartItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart mutations including the session total updates they trigger, for carts of different sizes,
+ * the full snapshot a cart summary reads, and the binary encoding the JDBC cart store writes per
+ * change.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartServiceBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int cartSize;
+
+    private final CartService cartService = new CartService(new SessionCartStore());
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private MockHttpServletRequest request;
+    private ProductDto product;
+    private int quantity;
+    private List<CartItem> items;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        request = new MockHttpServletRequest();
+        for (long id = 1; id <= cartSize; id++) {
+            cartService.addProduct(new ProductDto(id, "Product " + id, "Category", BigDecimal.valueOf(id * 1999, 2), null), request, response);
+        }
+        product = new ProductDto(1L, "Product 1", "Category", new BigDecimal("19.99"), null);
+        items = cartService.getCart(request, response).items();
+        encoded = CartCodec.encode(items);
+    }
+
+    @Benchmark
+    public Cart.Change addProduct() {
+        return cartService.addProduct(product, request, response);
+    }
+
+    @Benchmark
+    public Cart.Change updateQuantity() {
+        quantity = quantity % 9 + 1;
+        return cartService.updateQuantity(1L, quantity, request, response);
+    }
+
+    @Benchmark
+    public Cart.Snapshot snapshot() {
+        return cartService.getCart(request, response);
+    }
+
+    @Benchmark
+    public byte[] encodeCart() {
+        return CartCodec.encode(items);
+    }
+
+    @Benchmark
+    public Cart decodeCart() {
+        return CartCodec.decode(encoded);
+    }
+}
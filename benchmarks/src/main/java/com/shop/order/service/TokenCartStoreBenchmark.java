@@ -0,0 +1,66 @@
+package com.shop.order.service;
+
+import com.shop.order.model.Cart;
+import com.shop.order.model.CartItem;
+import com.shop.order.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the stateless cart mode: verifying and decoding the token on every cart
+ * request, and signing and encoding it again on every change.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenCartStoreBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int cartSize;
+
+    private final TokenCartStore store = new TokenCartStore(
+            List.of("benchmark-secret-0123456789abcdefghij", "previous-secret-0123456789abcdefghij"),
+            "CART_TOKEN", false, Duration.ofDays(30), 3800);
+    private Cart.Snapshot cart;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        List<CartItem> items = new ArrayList<>();
+        for (long id = 1; id <= cartSize; id++) {
+            CartItem item = new CartItem(id, "Product " + id, Money.ofMinor(id * 1999));
+            item.setQuantity((int) (id % 5) + 1);
+            items.add(item);
+        }
+        cart = Cart.of(items).snapshot();
+        token = store.encode(cart);
+        System.out.println("\ntoken length for " + cartSize + " line(s): " + token.length());
+    }
+
+    @Benchmark
+    public String encode() {
+        return store.encode(cart);
+    }
+
+    @Benchmark
+    public Cart decode() {
+        return store.decode(token);
+    }
+}
@@ -0,0 +1,85 @@
+package com.shop.product.controller.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.shop.product.catalog.ProductJsonCache;
+import com.shop.product.controller.api.ProductApiController.ProductResponse;
+import com.shop.product.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing one list page: Jackson mapping per request against copying cached fragments.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductJsonBodyBenchmark {
+
+    @Param({"50", "200"})
+    private int pageSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectWriter listWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+            .constructCollectionType(List.class, ProductResponse.class));
+    private final ObjectWriter productWriter = objectMapper.writerFor(ProductResponse.class);
+    private final ProductJsonCache cache = new ProductJsonCache(true, DataSize.ofMegabytes(4), DataSize.ofMegabytes(64));
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(256 * 1024);
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        products = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            Product product = new Product(id, "Product " + id, "Category " + (id % 12),
+                    BigDecimal.valueOf(id * 137, 2), "Description ".repeat(40), "https://cdn.example.com/p/" + id + ".jpg");
+            product.setVersion(1L);
+            products.add(product);
+        }
+        products.forEach(product -> cache.get(product, this::serialize));
+    }
+
+    @Benchmark
+    public int jackson() throws IOException {
+        out.reset();
+        listWriter.writeValue(out, products.stream().map(ProductResponse::fromEntity).toList());
+        return out.size();
+    }
+
+    @Benchmark
+    public int fragments() throws IOException {
+        out.reset();
+        ProductJsonBody.array(products.stream().map(product -> cache.get(product, this::serialize)).toList())
+                .writeTo(Channels.newChannel(out));
+        return out.size();
+    }
+
+    private byte[] serialize(Product product) {
+        try {
+            return productWriter.writeValueAsBytes(ProductResponse.fromEntity(product));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.shop.product.controller.api;
+
+import com.shop.product.controller.api.ProductApiController.ProductResponse;
+import com.shop.product.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response mapping for one list page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductResponseBenchmark {
+
+    @Param({"50", "200"})
+    private int pageSize;
+
+    private final Set<String> gridFields = Set.of("name", "price", "imageUrl");
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        products = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            products.add(new Product(id, "Product " + id, "Category " + (id % 12),
+                    BigDecimal.valueOf(id * 137, 2), "Description ".repeat(40), "https://cdn.example.com/p/" + id + ".jpg"));
+        }
+    }
+
+    @Benchmark
+    public List<ProductResponse> fromEntity() {
+        return products.stream().map(ProductResponse::fromEntity).toList();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> sparse() {
+        return products.stream().map(product -> ProductResponse.sparse(product, gridFields)).toList();
+    }
+}
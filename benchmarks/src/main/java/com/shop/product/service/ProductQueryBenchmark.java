@@ -0,0 +1,53 @@
+package com.shop.product.service;
+
+import com.shop.product.model.Money;
+import com.shop.product.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request query construction for {@link ProductService}: filter specification and sort, built
+ * by the {@link ProductSpecifications} helper the service uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductQueryBenchmark {
+
+    private final Money minPrice = Money.ofMinor(10_000);
+    private final Money maxPrice = Money.ofMinor(250_050);
+
+    @Benchmark
+    public Specification<Product> buildSpecificationAllFilters() {
+        return ProductSpecifications.filter(minPrice, maxPrice, "Laptop");
+    }
+
+    @Benchmark
+    public Specification<Product> buildSpecificationNoFilters() {
+        return ProductSpecifications.filter(null, null, null);
+    }
+
+    @Benchmark
+    public Sort resolveSort() {
+        return ProductSpecifications.sort("price", Sort.Direction.DESC);
+    }
+
+    @Benchmark
+    public Sort resolveSortUnknownField() {
+        return ProductSpecifications.sort("unknown", Sort.Direction.ASC);
+    }
+}
@@ -318,6 +318,12 @@ export default function App() {
         if (data.errors) {
           setCheckoutErrors(data.errors);
         }
+        if (response.status === 409 && data.items) {
+          // Prices or availability changed since the items were added; show the updated cart.
+          const updatedCart = { items: data.items, totalQuantity: data.totalQuantity, totalPrice: data.totalPrice };
+          setCart(updatedCart);
+          sessionStorage.setItem('checkoutCart', JSON.stringify(updatedCart));
+        }
         if (data.message && data.message !== 'Validation failed') {
           setCheckoutSubmitError(data.message);
         }
@@ -0,0 +1,179 @@
+package com.shop.common.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.util.UriBuilderFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * JSON client for one upstream service on top of the JDK {@link HttpClient}, which keeps a pool of
+ * persistent connections per client: create one instance per upstream and share it. With
+ * {@code h2c} the first request upgrades the connection to cleartext HTTP/2 and later requests are
+ * multiplexed over it; an upstream that does not speak HTTP/2 keeps being served over HTTP/1.1.
+ * <p>
+ * Three deadlines apply: {@code connectTimeout} to open a connection, {@code readTimeout} until the
+ * response headers arrive and {@code totalTimeout} for the whole exchange including the body.
+ * Failures surface like they do from {@code RestTemplate}: 4xx/5xx answers as
+ * {@link HttpClientErrorException}/{@link HttpServerErrorException}, I/O errors and deadlines as
+ * {@link ResourceAccessException}. The async variants complete exceptionally with the same
+ * exceptions and never block the caller.
+ */
+public class InterServiceHttpClient {
+
+    private final String name;
+    private final HttpClient httpClient;
+    private final UriBuilderFactory uriBuilderFactory;
+    private final ObjectMapper objectMapper;
+    private final Duration readTimeout;
+    private final Duration totalTimeout;
+
+    public InterServiceHttpClient(String name, String baseUrl, ObjectMapper objectMapper,
+                                  Duration connectTimeout, Duration readTimeout, Duration totalTimeout,
+                                  boolean h2c) {
+        this.name = name;
+        this.httpClient = HttpClient.newBuilder()
+                .version(h2c ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        this.uriBuilderFactory = new DefaultUriBuilderFactory(baseUrl);
+        this.objectMapper = objectMapper;
+        this.readTimeout = readTimeout;
+        this.totalTimeout = totalTimeout;
+    }
+
+    public <T> ResponseEntity<T> get(String uriTemplate, HttpHeaders headers, Class<T> responseType, Object... uriVariables) {
+        return await(getAsync(uriTemplate, headers, responseType, uriVariables));
+    }
+
+    public <T> ResponseEntity<T> get(String uriTemplate, HttpHeaders headers, ParameterizedTypeReference<T> responseType, Object... uriVariables) {
+        return await(getAsync(uriTemplate, headers, responseType, uriVariables));
+    }
+
+    public <T> ResponseEntity<T> post(String uriTemplate, HttpHeaders headers, Object body, Class<T> responseType, Object... uriVariables) {
+        return await(postAsync(uriTemplate, headers, body, responseType, uriVariables));
+    }
+
+    public <T> CompletableFuture<ResponseEntity<T>> getAsync(String uriTemplate, HttpHeaders headers, Class<T> responseType, Object... uriVariables) {
+        return exchangeAsync(HttpMethod.GET, uriTemplate, headers, null, objectMapper.constructType(responseType), uriVariables);
+    }
+
+    public <T> CompletableFuture<ResponseEntity<T>> getAsync(String uriTemplate, HttpHeaders headers, ParameterizedTypeReference<T> responseType, Object... uriVariables) {
+        return exchangeAsync(HttpMethod.GET, uriTemplate, headers, null, objectMapper.constructType(responseType.getType()), uriVariables);
+    }
+
+    public <T> CompletableFuture<ResponseEntity<T>> postAsync(String uriTemplate, HttpHeaders headers, Object body, Class<T> responseType, Object... uriVariables) {
+        return exchangeAsync(HttpMethod.POST, uriTemplate, headers, body, objectMapper.constructType(responseType), uriVariables);
+    }
+
+    private <T> CompletableFuture<ResponseEntity<T>> exchangeAsync(HttpMethod method, String uriTemplate, HttpHeaders headers,
+                                                                   Object body, JavaType responseType, Object... uriVariables) {
+        // Nothing throws to the caller: a bad URI or body fails the future like any other error, so
+        // whoever waits on it (e.g. a circuit breaker probe) always sees it complete.
+        URI uri;
+        CompletableFuture<HttpResponse<byte[]>> sent;
+        try {
+            uri = uriBuilderFactory.expand(uriTemplate, uriVariables);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(new RestClientException("Could not expand " + name + " URI " + uriTemplate, e));
+        }
+        try {
+            sent = httpClient.sendAsync(buildRequest(method, uri, headers, body), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new RestClientException("Could not write request body for " + uri, e));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(translate(method, uri, e));
+        }
+        return sent.copy()
+                .orTimeout(totalTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((response, failure) -> {
+                    if (failure != null) {
+                        // Aborts the exchange when the deadline passed first, releasing its connection.
+                        sent.cancel(true);
+                        throw new CompletionException(translate(method, uri, failure));
+                    }
+                    return toEntity(response, responseType);
+                });
+    }
+
+    private HttpRequest buildRequest(HttpMethod method, URI uri, HttpHeaders headers, Object body) throws JsonProcessingException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        if (headers != null) {
+            headers.forEach((header, values) -> values.forEach(value -> builder.header(header, value)));
+        }
+        if (body == null) {
+            return builder.method(method.name(), HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return builder.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .method(method.name(), HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private <T> ResponseEntity<T> toEntity(HttpResponse<byte[]> response, JavaType responseType) {
+        HttpStatusCode status = HttpStatusCode.valueOf(response.statusCode());
+        HttpHeaders headers = new HttpHeaders();
+        response.headers().map().forEach(headers::addAll);
+        byte[] body = response.body();
+        if (status.is4xxClientError()) {
+            throw HttpClientErrorException.create(status, "", headers, body, StandardCharsets.UTF_8);
+        }
+        if (status.is5xxServerError()) {
+            throw HttpServerErrorException.create(status, "", headers, body, StandardCharsets.UTF_8);
+        }
+        if (body == null || body.length == 0 || responseType.hasRawClass(Void.class)) {
+            return new ResponseEntity<>(headers, status);
+        }
+        try {
+            return new ResponseEntity<>(objectMapper.readValue(body, responseType), headers, status);
+        } catch (IOException e) {
+            throw new RestClientException("Could not read " + name + " response as " + responseType, e);
+        }
+    }
+
+    private RestClientException translate(HttpMethod method, URI uri, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof TimeoutException) {
+            return new ResourceAccessException(method + " " + uri + " did not complete within " + totalTimeout);
+        }
+        if (cause instanceof IOException io) {
+            return new ResourceAccessException("I/O error on " + method + " " + uri + ": " + io.getMessage(), io);
+        }
+        return new RestClientException(method + " " + uri + " failed", cause);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.shop.common.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Builds one {@link InterServiceHttpClient} per upstream from {@code <prefix>.url} and
+ * {@code <prefix>.http.connect-timeout}, {@code read-timeout}, {@code total-timeout} and {@code h2c}.
+ * Services opt in with {@code @Import(InterServiceHttpClients.class)} and declare a bean per upstream.
+ * <p>
+ * How long idle connections stay pooled is the JVM-wide {@code jdk.httpclient.keepalive.timeout}
+ * system property (30s by default), which the service Dockerfiles set on the command line.
+ */
+public class InterServiceHttpClients {
+
+    private final ObjectMapper objectMapper;
+    private final Binder binder;
+
+    public InterServiceHttpClients(ObjectMapper objectMapper, Environment environment) {
+        this.objectMapper = objectMapper;
+        this.binder = Binder.get(environment);
+    }
+
+    /**
+     * @throws IllegalStateException when {@code <prefix>.url} is not set
+     */
+    public InterServiceHttpClient create(String name, String prefix) {
+        String url = binder.bind(prefix + ".url", String.class)
+                .orElseThrow(() -> new IllegalStateException(prefix + ".url must be set for " + name));
+        return new InterServiceHttpClient(name, url, objectMapper,
+                duration(prefix + ".http.connect-timeout", Duration.ofSeconds(2)),
+                duration(prefix + ".http.read-timeout", Duration.ofSeconds(5)),
+                duration(prefix + ".http.total-timeout", Duration.ofSeconds(10)),
+                binder.bind(prefix + ".http.h2c", Boolean.class).orElse(false));
+    }
+
+    private Duration duration(String name, Duration defaultValue) {
+        return binder.bind(name, Duration.class).orElse(defaultValue);
+    }
+}
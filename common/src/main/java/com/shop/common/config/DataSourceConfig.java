@@ -0,0 +1,71 @@
+package com.shop.common.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routes read-only transactions to the replicas in {@code app.datasource.replicas.urls} and
+ * everything else to the primary. The application datasource is a lazy connection proxy: the
+ * physical connection is only fetched at the first statement, once the transaction has marked it
+ * read-only, so Spring can pick the replica side for it. Services opt in with
+ * {@code @Import(DataSourceConfig.class)}.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaDataSource replicaDataSource(DataSourceProperties properties,
+                                               HikariDataSource primaryDataSource,
+                                               @Value("${app.datasource.replicas.urls:}") List<String> urls,
+                                               @Value("${app.datasource.replicas.pool-size:10}") int poolSize,
+                                               @Value("${app.datasource.replicas.connection-timeout:2s}") Duration connectionTimeout,
+                                               @Value("${app.datasource.replicas.lag-query:SHOW REPLICA STATUS}") String lagQuery,
+                                               @Value("${app.datasource.replicas.max-lag:5s}") Duration maxLag,
+                                               @Value("${app.datasource.replicas.check-interval:5s}") Duration checkInterval) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + (replicas.size() + 1));
+            config.setJdbcUrl(url.trim());
+            config.setUsername(properties.determineUsername());
+            config.setPassword(properties.determinePassword());
+            config.setDriverClassName(properties.determineDriverClassName());
+            config.setReadOnly(true);
+            config.setMaximumPoolSize(poolSize);
+            config.setConnectionTimeout(connectionTimeout.toMillis());
+            // A replica that is down at startup must not keep the service from starting.
+            config.setInitializationFailTimeout(-1);
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReplicaDataSource(primaryDataSource, replicas, lagQuery, maxLag, checkInterval);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
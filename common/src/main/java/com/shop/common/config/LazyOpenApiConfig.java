@@ -0,0 +1,41 @@
+package com.shop.common.config;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Springdoc beans are only needed once someone opens {@code /v3/api-docs} or the Swagger UI, so
+ * they are created on first use instead of during startup. Beans that other startup beans depend
+ * on (MVC configurers, converters) are still created early through those dependencies.
+ */
+@Configuration(proxyBeanMethods = false)
+public class LazyOpenApiConfig {
+
+    private static final String SPRINGDOC_PACKAGE = "org.springdoc.";
+
+    @Bean
+    static BeanFactoryPostProcessor lazyOpenApiBeans() {
+        return LazyOpenApiConfig::markSpringdocBeansLazy;
+    }
+
+    private static void markSpringdocBeansLazy(ConfigurableListableBeanFactory beanFactory) {
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            if (definition.getRole() != BeanDefinition.ROLE_INFRASTRUCTURE && isSpringdoc(beanFactory, definition)) {
+                definition.setLazyInit(true);
+            }
+        }
+    }
+
+    private static boolean isSpringdoc(ConfigurableListableBeanFactory beanFactory, BeanDefinition definition) {
+        String className = definition.getBeanClassName();
+        if (className == null && definition.getFactoryBeanName() != null
+                && beanFactory.containsBeanDefinition(definition.getFactoryBeanName())) {
+            className = beanFactory.getBeanDefinition(definition.getFactoryBeanName()).getBeanClassName();
+        }
+        return className != null && className.startsWith(SPRINGDOC_PACKAGE);
+    }
+}
@@ -0,0 +1,164 @@
+package com.shop.common.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read side of {@link DataSourceConfig}. Hands out replica connections round-robin, skipping
+ * replicas that failed their last health check, lag more than {@code maxLag} behind the primary or
+ * just refused a connection. When no replica is usable the connection comes from the primary,
+ * flagged read-only. Ejected replicas come back once a health check passes again.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecks;
+
+    public ReplicaDataSource(DataSource primary,
+                             List<HikariDataSource> replicas,
+                             String lagQuery,
+                             Duration maxLag,
+                             Duration checkInterval) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.lagQuery = lagQuery == null ? "" : lagQuery.trim();
+        this.maxLag = maxLag;
+        if (this.replicas.isEmpty()) {
+            this.healthChecks = null;
+            return;
+        }
+        this.healthChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecks.scheduleWithFixedDelay(this::checkReplicas, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int size = replicas.size();
+        if (size > 0) {
+            int start = Math.floorMod(next.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((start + i) % size);
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    replica.eject("connection failed: " + e.getMessage());
+                }
+            }
+        }
+        Connection connection = primary.getConnection();
+        connection.setReadOnly(true);
+        return connection;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLException("Replica connections use the configured credentials");
+    }
+
+    @Override
+    public void close() {
+        if (healthChecks != null) {
+            healthChecks.shutdownNow();
+        }
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (lagQuery.isEmpty()) {
+                    replica.restore();
+                    continue;
+                }
+                Long lagSeconds = lagSeconds(connection);
+                if (lagSeconds == null) {
+                    replica.eject("replication is not running");
+                } else if (lagSeconds > maxLag.toSeconds()) {
+                    replica.eject("lagging " + lagSeconds + "s behind the primary");
+                } else {
+                    replica.restore();
+                }
+            } catch (SQLException e) {
+                replica.eject("health check failed: " + e.getMessage());
+            } catch (RuntimeException e) {
+                replica.eject("health check failed: " + e);
+            }
+        }
+    }
+
+    // Reads the lag in seconds from the first row: the Seconds_Behind_Source column of
+    // SHOW REPLICA STATUS (Seconds_Behind_Master on older servers) or else the first column.
+    // No row or a null value means the server is not replicating.
+    private Long lagSeconds(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                return null;
+            }
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            int column = 1;
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                String label = metaData.getColumnLabel(i);
+                if ("Seconds_Behind_Source".equalsIgnoreCase(label) || "Seconds_Behind_Master".equalsIgnoreCase(label)) {
+                    column = i;
+                    break;
+                }
+            }
+            long seconds = resultSet.getLong(column);
+            return resultSet.wasNull() ? null : seconds;
+        }
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+        // Starts ejected so nothing is routed to a replica before its first health check.
+        private volatile boolean healthy;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private void eject(String reason) {
+            if (healthy) {
+                log.warn("Ejecting read replica {}: {}", dataSource.getPoolName(), reason);
+            }
+            healthy = false;
+        }
+
+        private void restore() {
+            if (!healthy) {
+                log.info("Routing reads to replica {}", dataSource.getPoolName());
+            }
+            healthy = true;
+        }
+    }
+}
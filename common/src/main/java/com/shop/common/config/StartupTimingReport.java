@@ -0,0 +1,69 @@
+package com.shop.common.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Logs how long startup took and the slowest bean instantiations recorded by the
+ * {@link BufferingApplicationStartup} installed in {@code main}. Bean timings are inclusive: a bean
+ * that pulls in its dependencies is charged for creating them as well.
+ */
+@Component
+public class StartupTimingReport implements ApplicationListener<ApplicationReadyEvent> {
+
+    /**
+     * Enough steps for the whole startup of these services; later steps are dropped.
+     */
+    public static final int TIMELINE_CAPACITY = 8192;
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimingReport.class);
+
+    private static final String BEAN_INSTANTIATION = "spring.beans.instantiate";
+
+    private final ApplicationStartup applicationStartup;
+    private final int slowestBeans;
+
+    public StartupTimingReport(ApplicationStartup applicationStartup,
+                               @Value("${app.startup.report.slowest-beans:15}") int slowestBeans) {
+        this.applicationStartup = applicationStartup;
+        this.slowestBeans = slowestBeans;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!(applicationStartup instanceof BufferingApplicationStartup buffering) || slowestBeans <= 0) {
+            return;
+        }
+        List<TimelineEvent> beans = buffering.getBufferedTimeline().getEvents().stream()
+                .filter(step -> BEAN_INSTANTIATION.equals(step.getStartupStep().getName()))
+                .toList();
+        String slowest = beans.stream()
+                .sorted(Comparator.comparing(TimelineEvent::getDuration).reversed())
+                .limit(slowestBeans)
+                .map(step -> String.format("  %6d ms  %s", step.getDuration().toMillis(), beanName(step.getStartupStep())))
+                .collect(Collectors.joining("\n"));
+        log.info("Started in {} ms, {} beans instantiated; slowest:\n{}",
+                event.getTimeTaken() == null ? -1 : event.getTimeTaken().toMillis(), beans.size(), slowest);
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+}
@@ -0,0 +1,160 @@
+package com.shop.common.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier thread (typically inside a
+ * {@code synchronized} block or a native frame), using the {@code jdk.VirtualThreadPinned} JFR
+ * event. Each new pinning site is logged once with its stack; after that the counts per site are
+ * summarized every {@code report-interval}. Enabled by the {@code virtual-threads} profile; services
+ * opt in with {@code @Import(VirtualThreadPinningMonitor.class)}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.threads.pinning-monitor.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int SUMMARY_SITES = 10;
+
+    private final Duration threshold;
+    private final Duration reportInterval;
+    private final int stackDepth;
+
+    // Only touched from the recording stream's thread, and from stop() once the stream is closed.
+    private final Map<String, PinnedSite> sites = new HashMap<>();
+    private long lastReport = System.nanoTime();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${app.threads.pinning-monitor.threshold:20ms}") Duration threshold,
+                                       @Value("${app.threads.pinning-monitor.report-interval:1m}") Duration reportInterval,
+                                       @Value("${app.threads.pinning-monitor.stack-depth:24}") int stackDepth) {
+        this.threshold = threshold;
+        this.reportInterval = reportInterval;
+        this.stackDepth = stackDepth;
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+        stream.startAsync();
+        log.info("Reporting virtual threads pinned for longer than {} ms", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+            report();
+        }
+    }
+
+    private void record(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        String site = describe(stackTrace);
+        PinnedSite stats = sites.computeIfAbsent(site, key -> {
+            log.warn("Virtual thread pinned for {} ms on {}:\n{}",
+                    event.getDuration().toMillis(), event.getThread() == null ? "?" : event.getThread().getJavaName(), key);
+            return new PinnedSite(applicationFrame(stackTrace));
+        });
+        stats.add(event.getDuration().toNanos());
+
+        long now = System.nanoTime();
+        if (now - lastReport >= reportInterval.toNanos()) {
+            lastReport = now;
+            report();
+        }
+    }
+
+    private void report() {
+        List<PinnedSite> active = sites.values().stream()
+                .filter(site -> site.count > 0)
+                .sorted(Comparator.comparingLong((PinnedSite site) -> site.totalNanos).reversed())
+                .toList();
+        if (active.isEmpty()) {
+            return;
+        }
+        String summary = active.stream()
+                .limit(SUMMARY_SITES)
+                .map(site -> String.format("  %d x, total %d ms, max %d ms at %s",
+                        site.count, site.totalNanos / 1_000_000, site.maxNanos / 1_000_000, site.topFrame))
+                .collect(Collectors.joining("\n"));
+        log.warn("Virtual thread pinning since last report ({} sites):\n{}", active.size(), summary);
+        active.forEach(PinnedSite::reset);
+    }
+
+    private String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "\tat <no stack trace>";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(stackDepth)
+                .map(VirtualThreadPinningMonitor::describe)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+
+    // The top frames are JDK parking code; the first frame outside the JDK names the site.
+    private static String applicationFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "<no stack trace>";
+        }
+        RecordedFrame site = stackTrace.getFrames().stream()
+                .filter(frame -> !isJdkFrame(frame.getMethod().getType().getName()))
+                .findFirst()
+                .orElse(stackTrace.getFrames().get(0));
+        return describe(site).substring("\tat ".length());
+    }
+
+    private static boolean isJdkFrame(String className) {
+        return className.startsWith("java.") || className.startsWith("jdk.") || className.startsWith("sun.");
+    }
+
+    private static final class PinnedSite {
+
+        private final String topFrame;
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        private PinnedSite(String topFrame) {
+            this.topFrame = topFrame;
+        }
+
+        private void add(long nanos) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        private void reset() {
+            count = 0;
+            totalNanos = 0;
+            maxNanos = 0;
+        }
+    }
+}
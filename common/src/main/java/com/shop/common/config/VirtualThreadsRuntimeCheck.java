@@ -0,0 +1,25 @@
+package com.shop.common.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+/**
+ * Stops startup when {@code spring.threads.virtual.enabled} is set on a JVM older than 21. Spring Boot
+ * silently keeps platform threads there, so a service started with the {@code virtual-threads} profile
+ * on the default Java 17 image would otherwise run without the mode it was asked for.
+ */
+public class VirtualThreadsRuntimeCheck implements EnvironmentPostProcessor {
+
+    private static final int MIN_JAVA_VERSION = 21;
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        boolean enabled = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (enabled && Runtime.version().feature() < MIN_JAVA_VERSION) {
+            throw new IllegalStateException("spring.threads.virtual.enabled needs Java " + MIN_JAVA_VERSION
+                    + " or later, running on " + Runtime.version()
+                    + "; build the image with JRE_VERSION=" + MIN_JAVA_VERSION + " or drop the virtual-threads profile");
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.shop.gateway;
 
+import com.shop.common.config.StartupTimingReport;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpMethod;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
@@ -15,10 +18,13 @@ import java.util.Arrays;
 import java.util.List;
 
 @SpringBootApplication
+@Import(StartupTimingReport.class)
 public class GatewayApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(GatewayApplication.class, args);
+        SpringApplication application = new SpringApplication(GatewayApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(StartupTimingReport.TIMELINE_CAPACITY));
+        application.run(args);
     }
 
     @Bean
@@ -67,6 +73,8 @@ public class GatewayApplication {
                 HttpMethod.OPTIONS.name()
         ));
         configuration.setAllowedHeaders(List.of("*"));
+        // Re-issued by the order service on every cart change when carts are stored client-side.
+        configuration.setExposedHeaders(List.of("X-Cart-Token"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -1,11 +1,20 @@
 package com.shop.order;
 
+import com.shop.common.config.DataSourceConfig;
+import com.shop.common.config.LazyOpenApiConfig;
+import com.shop.common.config.StartupTimingReport;
+import com.shop.common.config.VirtualThreadPinningMonitor;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@Import({DataSourceConfig.class, VirtualThreadPinningMonitor.class, LazyOpenApiConfig.class, StartupTimingReport.class})
+@EnableScheduling
 @OpenAPIDefinition(
         info = @Info(
                 title = "Order API",
@@ -16,6 +25,8 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class OrderApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(OrderApplication.class, args);
+        SpringApplication application = new SpringApplication(OrderApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(StartupTimingReport.TIMELINE_CAPACITY));
+        application.run(args);
     }
 }
@@ -0,0 +1,156 @@
+package com.shop.order.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Count-based circuit breaker. While CLOSED it records the outcome of the last {@code windowSize}
+ * calls and opens once at least {@code minimumCalls} were recorded and {@code failureRateThreshold}
+ * percent of them failed. OPEN rejects every call for {@code openDuration}, then HALF_OPEN lets
+ * {@code halfOpenProbes} trial calls through: if all succeed the breaker closes with a fresh
+ * window, the first failure opens it again.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private final String name;
+    private final boolean[] outcomes;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+
+    private final Lock lock = new ReentrantLock();
+    private State state = State.CLOSED;
+    private int recorded;
+    private int next;
+    private int failures;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+    private final AtomicLong rejected = new AtomicLong();
+
+    CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold,
+                   Duration openDuration, int halfOpenProbes) {
+        this.name = name;
+        this.outcomes = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, outcomes.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+    }
+
+    /**
+     * Whether a call may go ahead; every permitted call must be followed by {@link #onSuccess()}
+     * or {@link #onFailure()}.
+     */
+    boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                transitionTo(State.HALF_OPEN);
+            }
+            boolean permitted = switch (state) {
+                case CLOSED -> true;
+                case OPEN -> false;
+                case HALF_OPEN -> {
+                    if (probesStarted < halfOpenProbes) {
+                        probesStarted++;
+                        yield true;
+                    }
+                    yield false;
+                }
+            };
+            if (!permitted) {
+                rejected.incrementAndGet();
+            }
+            return permitted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void onSuccess() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                if (++probesSucceeded >= halfOpenProbes) {
+                    transitionTo(State.CLOSED);
+                }
+            } else if (state == State.CLOSED) {
+                record(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void onFailure() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                transitionTo(State.OPEN);
+            } else if (state == State.CLOSED) {
+                record(true);
+                if (recorded >= minimumCalls && failures * 100 >= failureRateThreshold * recorded) {
+                    transitionTo(State.OPEN);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long rejectedCount() {
+        return rejected.get();
+    }
+
+    private void record(boolean failed) {
+        if (recorded == outcomes.length && outcomes[next]) {
+            failures--;
+        }
+        outcomes[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+        recorded = Math.min(recorded + 1, outcomes.length);
+    }
+
+    private void transitionTo(State target) {
+        if (target == State.OPEN) {
+            if (state == State.HALF_OPEN) {
+                log.warn("Circuit {} reopened after a failed probe", name);
+            } else {
+                log.warn("Circuit {} opened after {} of the last {} calls failed, rejecting calls for {} ms",
+                        name, failures, recorded, openNanos / 1_000_000);
+            }
+            openedAt = System.nanoTime();
+        } else {
+            log.info("Circuit {} is now {}", name, target);
+        }
+        state = target;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+        probesStarted = 0;
+        probesSucceeded = 0;
+    }
+}
@@ -1,59 +1,327 @@
 package com.shop.order.client;
 
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.shop.common.client.InterServiceHttpClient;
 import com.shop.order.client.dto.ProductDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
+/**
+ * Looks products up in the product service. Single lookups go through a bounded near-cache
+ * (Caffeine, whose W-TinyLFU admission keeps hot products resident while one-off lookups pass
+ * through): an entry older than {@code refresh-after} is still returned immediately while a
+ * background reload replaces it, and only after {@code expire-after} does a caller wait for the
+ * product service again. Not-found answers are cached for {@code not-found-ttl}; failures are
+ * never cached, and a failed background reload keeps the stale entry until it expires. Entries
+ * are dropped when the product service announces a change (see
+ * {@link com.shop.order.messaging.ProductChangeListener}).
+ * <p>
+ * Requests that do reach the product service are deduplicated, so concurrent lookups of one id
+ * share a single call, and guarded by a circuit breaker: once too many recent calls failed,
+ * lookups fail fast with {@link ProductLookupResult#error()} for {@code open-duration} instead of
+ * each waiting out the read timeout, after which a few probe calls decide whether to resume.
+ * <p>
+ * Every lookup has an {@code Async} variant that does not block the caller; the blocking methods
+ * wait for it, bounded by the {@code product.service.http} deadlines.
+ */
 @Component
-public class ProductClient {
+public class ProductClient implements MeterBinder {
 
     private static final Logger log = LoggerFactory.getLogger(ProductClient.class);
+    private static final int BATCH_SIZE = 100;
 
-    private final RestTemplate restTemplate;
+    private final InterServiceHttpClient http;
+    private final AsyncLoadingCache<Long, CachedLookup> cache;
+    private final SingleFlight<Long, ProductLookupResult> inFlight = new SingleFlight<>();
+    private final CircuitBreaker circuitBreaker;
 
-    public ProductClient(RestTemplateBuilder restTemplateBuilder,
-                         @Value("${product.service.url:http://localhost:3300}") String productServiceUrl) {
-        this.restTemplate = restTemplateBuilder
-                .rootUri(productServiceUrl)
-                .setConnectTimeout(Duration.ofSeconds(2))
-                .setReadTimeout(Duration.ofSeconds(3))
-                .build();
+    public ProductClient(InterServiceHttpClient productServiceHttpClient,
+                         @Value("${product.service.cache.enabled:true}") boolean cacheEnabled,
+                         @Value("${product.service.cache.maximum-size:10000}") long maximumSize,
+                         @Value("${product.service.cache.refresh-after:30s}") Duration refreshAfter,
+                         @Value("${product.service.cache.expire-after:5m}") Duration expireAfter,
+                         @Value("${product.service.cache.not-found-ttl:10s}") Duration notFoundTtl,
+                         @Value("${product.service.circuit-breaker.window-size:20}") int windowSize,
+                         @Value("${product.service.circuit-breaker.minimum-calls:10}") int minimumCalls,
+                         @Value("${product.service.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+                         @Value("${product.service.circuit-breaker.open-duration:10s}") Duration openDuration,
+                         @Value("${product.service.circuit-breaker.half-open-probes:3}") int halfOpenProbes) {
+        this.http = productServiceHttpClient;
+        this.circuitBreaker = new CircuitBreaker("product-service", windowSize, minimumCalls,
+                failureRateThreshold, openDuration, halfOpenProbes);
+        if (!cacheEnabled) {
+            this.cache = null;
+            return;
+        }
+        // Loads are non-blocking HTTP calls, so (re)loading entries does not tie up any cache threads.
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(refreshAfter)
+                .expireAfter(new LookupExpiry(expireAfter, notFoundTtl))
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<>() {
+                    @Override
+                    public CompletableFuture<CachedLookup> asyncLoad(Long productId, Executor executor) {
+                        return lookup(productId, null);
+                    }
+
+                    @Override
+                    public CompletableFuture<CachedLookup> asyncReload(Long productId, CachedLookup stale, Executor executor) {
+                        return lookup(productId, stale);
+                    }
+                });
     }
 
     public ProductLookupResult getProductById(Long productId) {
+        return getProductByIdAsync(productId).join();
+    }
+
+    /**
+     * Like {@link #getProductById(Long)}; the future never completes exceptionally.
+     */
+    public CompletableFuture<ProductLookupResult> getProductByIdAsync(Long productId) {
         if (productId == null || productId <= 0) {
-            return ProductLookupResult.notFound();
+            return CompletableFuture.completedFuture(ProductLookupResult.notFound());
         }
+        if (cache == null) {
+            return fetchProduct(productId);
+        }
+        return cache.get(productId)
+                .thenApply(cached -> cached != null ? cached.result() : ProductLookupResult.error());
+    }
 
-        try {
-            ResponseEntity<ProductDto> response = restTemplate.getForEntity(
-                    "/api/products/{id}",
-                    ProductDto.class,
-                    productId
-            );
+    /**
+     * Drops the cached lookup of one product, so the next request goes to the product service.
+     */
+    public void invalidate(Long productId) {
+        if (cache != null && productId != null) {
+            cache.synchronous().invalidate(productId);
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.synchronous().invalidateAll();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("product.client.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                .description("0 closed, 1 open, 2 half-open")
+                .register(registry);
+        FunctionCounter.builder("product.client.circuit.rejected", circuitBreaker, CircuitBreaker::rejectedCount)
+                .register(registry);
+        FunctionCounter.builder("product.client.coalesced", inFlight, SingleFlight::coalescedCount)
+                .register(registry);
+        if (cache != null) {
+            new CaffeineCacheMetrics<>(cache.synchronous(), "product-lookups", Tags.empty()).bindTo(registry);
+        }
+    }
+
+    // Completing with null leaves nothing cached (the caller sees an error); completing with the
+    // stale entry keeps it, with its original load time, when a background reload fails.
+    private CompletableFuture<CachedLookup> lookup(Long productId, CachedLookup stale) {
+        return fetchProduct(productId)
+                .thenApply(result -> result.isError() ? stale : new CachedLookup(result, System.nanoTime()));
+    }
+
+    private CompletableFuture<ProductLookupResult> fetchProduct(Long productId) {
+        return inFlight.execute(productId, () -> {
+            if (!circuitBreaker.tryAcquire()) {
+                return CompletableFuture.completedFuture(ProductLookupResult.error());
+            }
+            return requestProduct(productId).whenComplete((result, failure) -> {
+                if (result.isError()) {
+                    circuitBreaker.onFailure();
+                } else {
+                    circuitBreaker.onSuccess();
+                }
+            });
+        });
+    }
+
+    private CompletableFuture<ProductLookupResult> requestProduct(Long productId) {
+        return http.getAsync("/api/products/{id}", null, ProductDto.class, productId)
+                .handle((response, failure) -> {
+                    if (failure == null) {
+                        return response.getBody() != null
+                                ? ProductLookupResult.found(response.getBody())
+                                : ProductLookupResult.error();
+                    }
+                    Throwable cause = unwrap(failure);
+                    if (cause instanceof HttpClientErrorException.NotFound) {
+                        return ProductLookupResult.notFound();
+                    }
+                    log.warn("Failed to fetch product {} from product service: {}", productId, cause.getMessage());
+                    return ProductLookupResult.error();
+                });
+    }
+
+    /**
+     * Resolves many products with one request per {@value #BATCH_SIZE} ids instead of one per product.
+     * Every requested id is present in the result: ids the product service does not know map to
+     * {@link ProductLookupResult#notFound()}, ids from a failed request to {@link ProductLookupResult#error()}.
+     */
+    public Map<Long, ProductLookupResult> getProductsByIds(Collection<Long> productIds) {
+        return getProductsByIdsAsync(productIds).join();
+    }
+
+    /**
+     * Like {@link #getProductsByIds(Collection)}, with the requests for all chunks in flight at
+     * once; the future never completes exceptionally.
+     */
+    public CompletableFuture<Map<Long, ProductLookupResult>> getProductsByIdsAsync(Collection<Long> productIds) {
+        Map<Long, ProductLookupResult> results = new LinkedHashMap<>();
+        if (productIds == null) {
+            return CompletableFuture.completedFuture(results);
+        }
 
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                return ProductLookupResult.found(response.getBody());
+        Set<Long> uniqueIds = new LinkedHashSet<>();
+        for (Long productId : productIds) {
+            if (productId == null) {
+                continue;
             }
-            if (response.getStatusCode() == HttpStatus.NOT_FOUND) {
-                return ProductLookupResult.notFound();
+            if (productId <= 0) {
+                results.put(productId, ProductLookupResult.notFound());
+            } else {
+                uniqueIds.add(productId);
             }
-            return ProductLookupResult.error();
-        } catch (HttpClientErrorException.NotFound e) {
-            return ProductLookupResult.notFound();
-        } catch (RestClientException e) {
-            log.warn("Failed to fetch product {} from product service: {}", productId, e.getMessage());
-            return ProductLookupResult.error();
+        }
+
+        List<Long> validIds = new ArrayList<>(uniqueIds);
+        List<CompletableFuture<Map<Long, ProductLookupResult>>> chunks = new ArrayList<>();
+        for (int from = 0; from < validIds.size(); from += BATCH_SIZE) {
+            List<Long> chunk = List.copyOf(validIds.subList(from, Math.min(validIds.size(), from + BATCH_SIZE)));
+            chunks.add(fetchBatch(chunk).thenApply(fetched -> {
+                if (cache != null) {
+                    // Batch answers are fresh, so they also refresh the near-cache.
+                    long now = System.nanoTime();
+                    fetched.forEach((id, result) -> {
+                        if (!result.isError()) {
+                            cache.synchronous().put(id, new CachedLookup(result, now));
+                        }
+                    });
+                }
+                return fetched;
+            }));
+        }
+        return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new))
+                .thenApply(done -> {
+                    chunks.forEach(chunk -> results.putAll(chunk.join()));
+                    return results;
+                });
+    }
+
+    private CompletableFuture<Map<Long, ProductLookupResult>> fetchBatch(List<Long> productIds) {
+        if (!circuitBreaker.tryAcquire()) {
+            return CompletableFuture.completedFuture(errors(productIds));
+        }
+        return requestBatch(productIds).thenApply(results -> {
+            if (results == null) {
+                circuitBreaker.onFailure();
+                return errors(productIds);
+            }
+            circuitBreaker.onSuccess();
+            return results;
+        });
+    }
+
+    // Completes with null when the request failed.
+    private CompletableFuture<Map<Long, ProductLookupResult>> requestBatch(List<Long> productIds) {
+        return http.getAsync(
+                        "/api/products/batch?ids={ids}",
+                        null,
+                        new ParameterizedTypeReference<List<ProductDto>>() {},
+                        productIds.stream().map(String::valueOf).collect(Collectors.joining(","))
+                )
+                .handle((response, failure) -> {
+                    if (failure != null) {
+                        log.warn("Failed to fetch products {} from product service: {}", productIds, unwrap(failure).getMessage());
+                        return null;
+                    }
+                    List<ProductDto> body = response.getBody();
+                    if (body == null) {
+                        return null;
+                    }
+                    Map<Long, ProductLookupResult> results = new LinkedHashMap<>();
+                    productIds.forEach(id -> results.put(id, ProductLookupResult.notFound()));
+                    for (ProductDto product : body) {
+                        if (product != null && results.containsKey(product.getId())) {
+                            results.put(product.getId(), ProductLookupResult.found(product));
+                        }
+                    }
+                    return results;
+                });
+    }
+
+    private static Map<Long, ProductLookupResult> errors(List<Long> productIds) {
+        Map<Long, ProductLookupResult> results = new LinkedHashMap<>();
+        productIds.forEach(id -> results.put(id, ProductLookupResult.error()));
+        return results;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private record CachedLookup(ProductLookupResult result, long loadedAt) {
+    }
+
+    /**
+     * Entries live for {@code expireAfter} (not-found answers for {@code notFoundTtl}) counted from
+     * when they were loaded, so keeping a stale entry after a failed reload does not extend it.
+     */
+    private static final class LookupExpiry implements Expiry<Long, CachedLookup> {
+
+        private final long expireAfterNanos;
+        private final long notFoundTtlNanos;
+
+        LookupExpiry(Duration expireAfter, Duration notFoundTtl) {
+            this.expireAfterNanos = expireAfter.toNanos();
+            this.notFoundTtlNanos = notFoundTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Long productId, CachedLookup value, long currentTime) {
+            long ttl = value.result().isNotFound() ? notFoundTtlNanos : expireAfterNanos;
+            return Math.max(0, ttl - (currentTime - value.loadedAt()));
+        }
+
+        @Override
+        public long expireAfterUpdate(Long productId, CachedLookup value, long currentTime, long currentDuration) {
+            return expireAfterCreate(productId, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long productId, CachedLookup value, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
 
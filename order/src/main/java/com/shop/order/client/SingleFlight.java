@@ -0,0 +1,49 @@
+package com.shop.order.client;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one: the first caller starts the call, callers
+ * arriving while it is in flight get its result too. Nothing is kept once the call completes, so
+ * later callers start a new one.
+ */
+final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalesced.incrementAndGet();
+            // A copy, so one caller cancelling or timing out its future does not affect the others.
+            return leader.copy();
+        }
+        try {
+            call.get().whenComplete((value, failure) -> {
+                inFlight.remove(key, mine);
+                if (failure != null) {
+                    mine.completeExceptionally(failure);
+                } else {
+                    mine.complete(value);
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(e);
+        }
+        return mine.copy();
+    }
+
+    /**
+     * Calls that joined another caller's call instead of making their own.
+     */
+    long coalescedCount() {
+        return coalesced.get();
+    }
+}
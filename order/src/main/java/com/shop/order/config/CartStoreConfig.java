@@ -0,0 +1,30 @@
+package com.shop.order.config;
+
+import com.shop.order.service.CartStore;
+import com.shop.order.service.JdbcCartStore;
+import com.shop.order.service.SessionCartStore;
+import com.shop.order.service.TokenCartStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Picks the cart store from {@code app.cart.store} when the context starts rather than through bean
+ * conditions, which AOT processing would fix at build time: a fast-startup jar still follows
+ * {@code CART_STORE} at runtime.
+ */
+@Configuration
+public class CartStoreConfig {
+
+    @Bean
+    public CartStore cartStore(@Value("${app.cart.store:session}") String store, AutowireCapableBeanFactory beanFactory) {
+        return switch (store) {
+            case "session" -> new SessionCartStore();
+            // Constructor-autowired so the stores keep reading their own app.cart.* settings.
+            case "jdbc" -> (CartStore) beanFactory.autowire(JdbcCartStore.class, AutowireCapableBeanFactory.AUTOWIRE_CONSTRUCTOR, false);
+            case "token" -> (CartStore) beanFactory.autowire(TokenCartStore.class, AutowireCapableBeanFactory.AUTOWIRE_CONSTRUCTOR, false);
+            default -> throw new IllegalStateException("Unknown app.cart.store '" + store + "', expected session, jdbc or token");
+        };
+    }
+}
@@ -1,6 +1,11 @@
 package com.shop.order.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.ExchangeBuilder;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
@@ -17,6 +22,23 @@ public class RabbitConfig {
         return QueueBuilder.durable(queueName).build();
     }
 
+    @Bean
+    public FanoutExchange productChangesExchange(@Value("${app.messaging.exchanges.product-changes}") String exchangeName) {
+        return ExchangeBuilder.fanoutExchange(exchangeName).durable(true).build();
+    }
+
+    // Every instance needs every change for its own product cache, so each gets a private,
+    // auto-deleted queue instead of competing on a shared one.
+    @Bean
+    public Queue productChangesQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding productChangesBinding(Queue productChangesQueue, FanoutExchange productChangesExchange) {
+        return BindingBuilder.bind(productChangesQueue).to(productChangesExchange);
+    }
+
     @Bean
     public MessageConverter jacksonMessageConverter(ObjectMapper objectMapper) {
         return new Jackson2JsonMessageConverter(objectMapper);
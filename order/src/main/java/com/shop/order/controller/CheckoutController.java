@@ -1,12 +1,15 @@
 package com.shop.order.controller;
 
+import com.shop.order.controller.api.CartApiController.CartLineResponse;
 import com.shop.order.dto.OrderResponse;
-import com.shop.order.model.CartItem;
+import com.shop.order.model.Cart;
 import com.shop.order.model.CheckoutForm;
 import com.shop.order.model.Order;
 import com.shop.order.service.CartService;
+import com.shop.order.service.CheckoutRevalidationService;
 import com.shop.order.service.OrderService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -19,8 +22,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
@@ -34,10 +37,14 @@ public class CheckoutController {
 
     private final CartService cartService;
     private final OrderService orderService;
+    private final CheckoutRevalidationService revalidationService;
 
-    public CheckoutController(CartService cartService, OrderService orderService) {
+    public CheckoutController(CartService cartService,
+                              OrderService orderService,
+                              CheckoutRevalidationService revalidationService) {
         this.cartService = cartService;
         this.orderService = orderService;
+        this.revalidationService = revalidationService;
     }
 
     @GetMapping("/options")
@@ -52,10 +59,10 @@ public class CheckoutController {
     @PostMapping
     public ResponseEntity<?> finalizeCheckout(@Valid @RequestBody CheckoutForm checkoutForm,
                                               BindingResult bindingResult,
-                                              HttpSession session,
-                                              HttpServletRequest request) {
-        List<CartItem> items = new ArrayList<>(cartService.getItems(session));
-        if (items.isEmpty()) {
+                                              HttpServletRequest request,
+                                              HttpServletResponse response) {
+        Cart.Snapshot cart = cartService.getCart(request, response);
+        if (cart.isEmpty()) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("message", "Cart is empty"));
         }
@@ -82,17 +89,46 @@ public class CheckoutController {
                     ));
         }
 
-        int totalQuantity = cartService.getTotalQuantity(session);
-        BigDecimal totalPrice = cartService.getTotalPrice(session);
+        // The order is only created from lines whose prices the shopper has seen: anything that
+        // changed since it was added is updated in the cart and reported back for confirmation.
+        CheckoutRevalidationService.Result revalidation = revalidationService.revalidate(cart);
+        if (!revalidation.verified()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("message", "Could not confirm current prices, please try again later"));
+        }
+        if (revalidation.hasChanges()) {
+            Cart.Snapshot updated = cartService.applyChanges(revalidation.changes(), request, response);
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(buildCartChangedBody(revalidation.changes(), updated));
+        }
 
-        Long currentUserId = resolveUserId(session, request);
-        Order order = orderService.createOrder(checkoutForm, items, totalQuantity, totalPrice, currentUserId);
-        cartService.clearCart(session);
+        Long currentUserId = resolveUserId(request);
+        Order order = orderService.createOrder(checkoutForm, cart.items(), cart.totals().quantity(), cart.totals().price(), currentUserId);
+        cartService.clearCart(request, response);
 
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(OrderResponse.from(order));
     }
 
+    private Map<String, Object> buildCartChangedBody(List<CheckoutRevalidationService.LineChange> changes,
+                                                     Cart.Snapshot cart) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("message", "Some items in your cart have changed, please review your order");
+        body.put("changes", changes.stream().map(CartChangeResponse::from).toList());
+        body.put("items", cart.items().stream()
+                .map(item -> new CartLineResponse(
+                        item.getProductId(),
+                        item.getName(),
+                        item.getPrice().toBigDecimal(),
+                        item.getQuantity(),
+                        item.getSubtotal().toBigDecimal()
+                ))
+                .toList());
+        body.put("totalQuantity", cart.totals().quantity());
+        body.put("totalPrice", cart.totals().price().toBigDecimal());
+        return body;
+    }
+
     private boolean requiresCard(String paymentMethod) {
         return paymentMethod != null && !PAYMENT_METHOD_CASH.equalsIgnoreCase(paymentMethod.trim());
     }
@@ -119,8 +155,10 @@ public class CheckoutController {
         return errors;
     }
 
-    private Long resolveUserId(HttpSession session, HttpServletRequest request) {
-        Object cached = session.getAttribute("userId");
+    private Long resolveUserId(HttpServletRequest request) {
+        // Only an existing session is consulted, so stateless cart stores never create one here.
+        HttpSession session = request.getSession(false);
+        Object cached = session != null ? session.getAttribute("userId") : null;
         if (cached instanceof Long) {
             return (Long) cached;
         }
@@ -130,10 +168,66 @@ public class CheckoutController {
         }
         try {
             Long userId = Long.parseLong(userIdHeader);
-            session.setAttribute("userId", userId);
+            if (session != null) {
+                session.setAttribute("userId", userId);
+            }
             return userId;
         } catch (NumberFormatException ex) {
             return null;
         }
     }
+
+    public static class CartChangeResponse {
+        private final Long productId;
+        private final String name;
+        private final int quantity;
+        private final BigDecimal previousPrice;
+        private final BigDecimal currentPrice;
+        private final boolean removed;
+
+        public CartChangeResponse(Long productId, String name, int quantity,
+                                  BigDecimal previousPrice, BigDecimal currentPrice, boolean removed) {
+            this.productId = productId;
+            this.name = name;
+            this.quantity = quantity;
+            this.previousPrice = previousPrice;
+            this.currentPrice = currentPrice;
+            this.removed = removed;
+        }
+
+        static CartChangeResponse from(CheckoutRevalidationService.LineChange change) {
+            return new CartChangeResponse(
+                    change.productId(),
+                    change.name(),
+                    change.quantity(),
+                    change.previousPrice().toBigDecimal(),
+                    change.isRemoved() ? null : change.currentPrice().toBigDecimal(),
+                    change.isRemoved()
+            );
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public BigDecimal getPreviousPrice() {
+            return previousPrice;
+        }
+
+        public BigDecimal getCurrentPrice() {
+            return currentPrice;
+        }
+
+        public boolean isRemoved() {
+            return removed;
+        }
+    }
 }
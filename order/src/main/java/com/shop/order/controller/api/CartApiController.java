@@ -2,12 +2,18 @@ package com.shop.order.controller.api;
 
 import com.shop.order.client.ProductClient;
 import com.shop.order.client.dto.ProductDto;
+import com.shop.order.model.Cart;
 import com.shop.order.model.CartItem;
+import com.shop.order.model.Money;
 import com.shop.order.service.CartService;
-import jakarta.servlet.http.HttpSession;
+import com.shop.order.service.CartTooLargeException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -24,6 +30,9 @@ import java.util.Map;
 @RequestMapping("/api/cart")
 public class CartApiController {
 
+    // Far above any real order; larger values only serve to overflow the cart totals.
+    private static final int MAX_QUANTITY = 9999;
+
     private final ProductClient productClient;
     private final CartService cartService;
 
@@ -33,17 +42,19 @@ public class CartApiController {
     }
 
     @GetMapping
-    public ResponseEntity<CartSummaryResponse> getCart(HttpSession session) {
-        return ResponseEntity.ok(buildCartSummary(session));
+    public ResponseEntity<CartSummaryResponse> getCart(HttpServletRequest request, HttpServletResponse response) {
+        return ResponseEntity.ok(buildCartSummary(request, response));
     }
 
     @PostMapping("/items")
-    public ResponseEntity<?> addToCart(@RequestBody AddToCartRequest request, HttpSession session) {
-        if (request == null || request.getProductId() == null) {
+    public ResponseEntity<?> addToCart(@RequestBody AddToCartRequest body,
+                                       HttpServletRequest request,
+                                       HttpServletResponse response) {
+        if (body == null || body.getProductId() == null) {
             return ResponseEntity.badRequest().body(Map.of("message", "Product id is required"));
         }
 
-        ProductClient.ProductLookupResult lookup = productClient.getProductById(request.getProductId());
+        ProductClient.ProductLookupResult lookup = productClient.getProductById(body.getProductId());
         if (lookup.isError()) {
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
                     .body(Map.of("message", "Product service is unavailable, please try again later"));
@@ -53,72 +64,81 @@ public class CartApiController {
         }
 
         ProductDto product = lookup.getProduct();
-        CartItem item = cartService.addProduct(product, session);
-        return buildCartActionResponse(item.getProductId(), item, session, "Product added to cart", false);
+        Cart.Change change = cartService.addProduct(product, request, response);
+        return buildCartActionResponse(product.getId(), change, "Product added to cart");
     }
 
     @PutMapping("/items/{productId}")
     public ResponseEntity<?> updateQuantity(@PathVariable Long productId,
-                                            @RequestBody UpdateCartItemRequest request,
-                                            HttpSession session) {
-        if (request == null || request.getQuantity() == null) {
+                                            @RequestBody UpdateCartItemRequest body,
+                                            HttpServletRequest request,
+                                            HttpServletResponse response) {
+        if (body == null || body.getQuantity() == null) {
             return ResponseEntity.badRequest().body(Map.of("message", "Quantity is required"));
         }
-
-        if (!cartService.containsProduct(productId, session)) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "Product not found in cart"));
+        if (body.getQuantity() > MAX_QUANTITY) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Quantity must be at most " + MAX_QUANTITY));
         }
 
-        if (request.getQuantity() <= 0) {
-            cartService.removeProduct(productId, session);
-            return buildCartActionResponse(productId, null, session, "Product removed from cart", true);
+        Cart.Change change = cartService.updateQuantity(productId, body.getQuantity(), request, response);
+        if (change == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "Product not found in cart"));
         }
-
-        CartItem updated = cartService.updateQuantity(productId, request.getQuantity(), session);
-        return buildCartActionResponse(productId, updated, session, "Quantity updated", false);
+        return buildCartActionResponse(productId, change,
+                change.item() == null ? "Product removed from cart" : "Quantity updated");
     }
 
     @DeleteMapping("/items/{productId}")
-    public ResponseEntity<?> removeItem(@PathVariable Long productId, HttpSession session) {
-        boolean removed = cartService.removeProduct(productId, session);
-        if (!removed) {
+    public ResponseEntity<?> removeItem(@PathVariable Long productId,
+                                        HttpServletRequest request,
+                                        HttpServletResponse response) {
+        Cart.Change change = cartService.removeProduct(productId, request, response);
+        if (change == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "Product not found in cart"));
         }
-        return buildCartActionResponse(productId, null, session, "Product removed from cart", true);
+        return buildCartActionResponse(productId, change, "Product removed from cart");
+    }
+
+    @ExceptionHandler(CartTooLargeException.class)
+    public ResponseEntity<Map<String, String>> cartTooLarge(CartTooLargeException ex) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(Map.of("message", "Cart is full, please check out or remove some items"));
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> cartConflict(OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("message", "Cart was changed by another request, please try again"));
     }
 
-    private CartSummaryResponse buildCartSummary(HttpSession session) {
-        List<CartLineResponse> lines = cartService.getItems(session).stream()
+    private CartSummaryResponse buildCartSummary(HttpServletRequest request, HttpServletResponse response) {
+        Cart.Snapshot cart = cartService.getCart(request, response);
+        List<CartLineResponse> lines = cart.items().stream()
                 .map(item -> new CartLineResponse(
                         item.getProductId(),
                         item.getName(),
-                        item.getPrice(),
+                        item.getPrice().toBigDecimal(),
                         item.getQuantity(),
-                        item.getSubtotal()
+                        item.getSubtotal().toBigDecimal()
                 ))
                 .toList();
-        int totalQuantity = cartService.getTotalQuantity(session);
-        BigDecimal totalPrice = cartService.getTotalPrice(session);
-        return new CartSummaryResponse(lines, totalQuantity, totalPrice);
+        return new CartSummaryResponse(lines, cart.totals().quantity(), cart.totals().price().toBigDecimal());
     }
 
     private ResponseEntity<CartActionResponse> buildCartActionResponse(Long productId,
-                                                                       CartItem item,
-                                                                       HttpSession session,
-                                                                       String message,
-                                                                       boolean removed) {
-        int totalQuantity = cartService.getTotalQuantity(session);
-        BigDecimal totalPrice = cartService.getTotalPrice(session);
-        BigDecimal subtotal = item != null ? item.getSubtotal() : BigDecimal.ZERO;
+                                                                       Cart.Change change,
+                                                                       String message) {
+        CartItem item = change.item();
+        BigDecimal subtotal = (item != null ? item.getSubtotal() : Money.ZERO).toBigDecimal();
         Integer quantity = item != null ? item.getQuantity() : null;
 
         CartActionResponse response = new CartActionResponse(
                 productId,
                 quantity,
                 subtotal,
-                totalQuantity,
-                totalPrice,
-                removed,
+                change.totals().quantity(),
+                change.totals().price().toBigDecimal(),
+                item == null,
                 message
         );
         return ResponseEntity.ok(response);
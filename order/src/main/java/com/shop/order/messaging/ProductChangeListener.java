@@ -0,0 +1,46 @@
+package com.shop.order.messaging;
+
+import com.shop.order.client.ProductClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Drops cached product lookups when the product service publishes a change, so carts pick up new
+ * prices and deletions without waiting for the cache to refresh on its own.
+ */
+@Component
+public class ProductChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeListener.class);
+
+    private final ProductClient productClient;
+
+    public ProductChangeListener(ProductClient productClient) {
+        this.productClient = productClient;
+    }
+
+    @RabbitListener(queues = "#{productChangesQueue.name}")
+    public void onProductChanged(ProductChangedMessage message) {
+        if (message.productId() == null) {
+            log.info("Catalog changed, dropping all cached products");
+            productClient.invalidateAll();
+            return;
+        }
+        productClient.invalidate(message.productId());
+    }
+
+    /**
+     * Mirrors the product service's event; {@code productId} is null for catalog-wide changes.
+     */
+    public record ProductChangedMessage(
+            Long productId,
+            Long version,
+            List<String> changedFields,
+            boolean deleted
+    ) {
+    }
+}
@@ -0,0 +1,208 @@
+package com.shop.order.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A shopper's cart lines, in the order they were added, with running totals that every mutation
+ * adjusts by its own delta instead of re-summing the lines. Parallel requests on the same cart
+ * (a session-held cart is shared between them) serialize on the cart's own lock, so carts of
+ * different shoppers never contend. Callers get detached copies: a {@link Change} with the touched
+ * line and the totals right after the mutation, or a {@link Snapshot} of all lines and totals
+ * taken at one point in time.
+ */
+public class Cart {
+
+    // A ReentrantLock rather than synchronized, so virtual threads waiting on a busy cart do not pin
+    // their carrier.
+    private final Lock lock = new ReentrantLock();
+    private final Map<Long, CartItem> lines = new LinkedHashMap<>();
+    private int totalQuantity;
+    private long totalMinor;
+
+    /**
+     * Cart holding the given lines; totals are computed once here.
+     */
+    public static Cart of(Collection<CartItem> items) {
+        Cart cart = new Cart();
+        cart.replaceLines(items);
+        return cart;
+    }
+
+    /**
+     * Replaces every line with a copy of the given ones, e.g. with a newer stored version of this
+     * cart; totals are recomputed once.
+     */
+    public void replaceLines(Collection<CartItem> items) {
+        lock.lock();
+        try {
+            lines.clear();
+            totalQuantity = 0;
+            totalMinor = 0;
+            for (CartItem item : items) {
+                CartItem line = item.copy();
+                lines.put(line.getProductId(), line);
+                totalQuantity = Math.addExact(totalQuantity, line.getQuantity());
+                totalMinor = Math.addExact(totalMinor, line.getSubtotalMinor());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds one unit of the product, creating the line at {@code price} if it is not in the cart yet.
+     */
+    public Change add(Long productId, String name, Money price) {
+        lock.lock();
+        try {
+            CartItem line = lines.get(productId);
+            // Totals first: a sum that overflows leaves the cart as it was.
+            int newTotalQuantity = Math.addExact(totalQuantity, 1);
+            long newTotalMinor = Math.addExact(totalMinor, (line != null ? line.getPrice() : price).minorUnits());
+            if (line == null) {
+                line = new CartItem(productId, name, price);
+                lines.put(productId, line);
+            }
+            line.incrementQuantity();
+            totalQuantity = newTotalQuantity;
+            totalMinor = newTotalMinor;
+            return new Change(line.copy(), totals());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the line's quantity, removing the line when {@code quantity <= 0}. Returns null when the
+     * product is not in the cart.
+     */
+    public Change setQuantity(Long productId, int quantity) {
+        if (quantity <= 0) {
+            return remove(productId);
+        }
+        lock.lock();
+        try {
+            CartItem line = lines.get(productId);
+            if (line == null) {
+                return null;
+            }
+            int delta = quantity - line.getQuantity();
+            int newTotalQuantity = Math.addExact(totalQuantity, delta);
+            long newTotalMinor = Math.addExact(totalMinor, Math.multiplyExact(line.getPrice().minorUnits(), (long) delta));
+            line.setQuantity(quantity);
+            totalQuantity = newTotalQuantity;
+            totalMinor = newTotalMinor;
+            return new Change(line.copy(), totals());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the line; the returned change has no item. Returns null when the product is not in
+     * the cart.
+     */
+    public Change remove(Long productId) {
+        lock.lock();
+        try {
+            CartItem line = lines.remove(productId);
+            if (line == null) {
+                return null;
+            }
+            totalQuantity = Math.subtractExact(totalQuantity, line.getQuantity());
+            totalMinor = Math.subtractExact(totalMinor, line.getSubtotalMinor());
+            return new Change(null, totals());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes the unit price of a line, keeping its quantity and position. Returns null when the
+     * product is not in the cart.
+     */
+    public Change reprice(Long productId, Money price) {
+        lock.lock();
+        try {
+            CartItem line = lines.get(productId);
+            if (line == null) {
+                return null;
+            }
+            CartItem repriced = new CartItem(productId, line.getName(), price);
+            repriced.setQuantity(line.getQuantity());
+            lines.put(productId, repriced);
+            totalMinor = Math.addExact(Math.subtractExact(totalMinor, line.getSubtotalMinor()), repriced.getSubtotalMinor());
+            return new Change(repriced.copy(), totals());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            lines.clear();
+            totalQuantity = 0;
+            totalMinor = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return lines.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Totals getTotals() {
+        lock.lock();
+        try {
+            return totals();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Snapshot snapshot() {
+        lock.lock();
+        try {
+            List<CartItem> items = new ArrayList<>(lines.size());
+            for (CartItem line : lines.values()) {
+                items.add(line.copy());
+            }
+            return new Snapshot(List.copyOf(items), totals());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Totals totals() {
+        return new Totals(totalQuantity, Money.ofMinor(totalMinor));
+    }
+
+    public record Totals(int quantity, Money price) {
+    }
+
+    /**
+     * Result of a mutation: the line as it is now (null once removed) and the cart totals.
+     */
+    public record Change(CartItem item, Totals totals) {
+    }
+
+    public record Snapshot(List<CartItem> items, Totals totals) {
+
+        public boolean isEmpty() {
+            return items.isEmpty();
+        }
+    }
+}
@@ -1,18 +1,21 @@
 package com.shop.order.model;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 public class CartItem {
     private final Long productId;
     private final String name;
-    private final BigDecimal price;
+    private final long unitPriceMinor;
     private int quantity;
 
     public CartItem(Long productId, String name, BigDecimal price) {
+        this(productId, name, Money.of(price));
+    }
+
+    public CartItem(Long productId, String name, Money price) {
         this.productId = productId;
         this.name = name;
-        this.price = price != null ? price : BigDecimal.ZERO;
+        this.unitPriceMinor = price != null ? price.minorUnits() : 0L;
         this.quantity = 0;
     }
 
@@ -24,8 +27,8 @@ public class CartItem {
         return name;
     }
 
-    public BigDecimal getPrice() {
-        return price;
+    public Money getPrice() {
+        return Money.ofMinor(unitPriceMinor);
     }
 
     public int getQuantity() {
@@ -40,7 +43,17 @@ public class CartItem {
         this.quantity = Math.max(quantity, 0);
     }
 
-    public BigDecimal getSubtotal() {
-        return price.multiply(BigDecimal.valueOf(quantity)).setScale(2, RoundingMode.HALF_UP);
+    public long getSubtotalMinor() {
+        return Math.multiplyExact(unitPriceMinor, quantity);
+    }
+
+    public Money getSubtotal() {
+        return Money.ofMinor(getSubtotalMinor());
+    }
+
+    CartItem copy() {
+        CartItem copy = new CartItem(productId, name, Money.ofMinor(unitPriceMinor));
+        copy.quantity = quantity;
+        return copy;
     }
 }
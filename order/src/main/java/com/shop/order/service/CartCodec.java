@@ -0,0 +1,105 @@
+package com.shop.order.service;
+
+import com.shop.order.model.Cart;
+import com.shop.order.model.CartItem;
+import com.shop.order.model.Money;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of a cart: a format byte, the line count, then per line the product id,
+ * quantity and unit price in minor units as unsigned varints followed by the UTF-8 product name.
+ * A typical line takes well under 64 bytes.
+ */
+public final class CartCodec {
+
+    private static final byte FORMAT = 1;
+    private static final int MAX_LINES = 1000;
+    private static final int MAX_NAME_BYTES = 1024;
+
+    private CartCodec() {
+    }
+
+    /**
+     * @throws CartTooLargeException when the cart has more lines than {@link #decode} accepts
+     */
+    public static byte[] encode(List<CartItem> items) {
+        if (items.size() > MAX_LINES) {
+            throw new CartTooLargeException(items.size(), MAX_LINES, "lines");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + items.size() * 48);
+        out.write(FORMAT);
+        writeVarLong(out, items.size());
+        for (CartItem item : items) {
+            writeVarLong(out, item.getProductId());
+            writeVarLong(out, item.getQuantity());
+            writeVarLong(out, item.getPrice().minorUnits());
+            byte[] name = item.getName() == null ? new byte[0] : item.getName().getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, name.length);
+            out.write(name, 0, name.length);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException when the bytes are not a cart written by {@link #encode}
+     */
+    public static Cart decode(byte[] bytes) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(bytes);
+            if (in.get() != FORMAT) {
+                throw new IllegalArgumentException("Unknown cart format");
+            }
+            int lines = boundedInt(readVarLong(in), MAX_LINES);
+            List<CartItem> items = new ArrayList<>(lines);
+            for (int i = 0; i < lines; i++) {
+                long productId = readVarLong(in);
+                int quantity = boundedInt(readVarLong(in), Integer.MAX_VALUE);
+                long unitPriceMinor = readVarLong(in);
+                byte[] name = new byte[boundedInt(readVarLong(in), MAX_NAME_BYTES)];
+                in.get(name);
+                CartItem item = new CartItem(productId, new String(name, StandardCharsets.UTF_8), Money.ofMinor(unitPriceMinor));
+                item.setQuantity(quantity);
+                items.add(item);
+            }
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("Trailing bytes after cart");
+            }
+            return Cart.of(items);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated cart", e);
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static int boundedInt(long value, int max) {
+        if (value < 0 || value > max) {
+            throw new IllegalArgumentException("Value out of range: " + value);
+        }
+        return (int) value;
+    }
+}
@@ -1,118 +1,88 @@
 package com.shop.order.service;
 
 import com.shop.order.client.dto.ProductDto;
-import com.shop.order.model.CartItem;
-import jakarta.servlet.http.HttpSession;
+import com.shop.order.model.Cart;
+import com.shop.order.model.Money;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Function;
 
 @Service
 public class CartService {
 
-    private static final String CART_SESSION_KEY = "cart";
-    private static final String CART_TOTAL_QUANTITY_KEY = "cartTotalQuantity";
-    private static final String CART_TOTAL_PRICE_KEY = "cartTotalPrice";
+    // The cart is loaded from the store once per request; later calls in the same request reuse it.
+    private static final String CART_REQUEST_ATTRIBUTE = CartService.class.getName() + ".cart";
 
-    @SuppressWarnings("unchecked")
-    private Map<Long, CartItem> getCart(HttpSession session) {
-        Map<Long, CartItem> cart = (Map<Long, CartItem>) session.getAttribute(CART_SESSION_KEY);
-        if (cart == null) {
-            cart = new LinkedHashMap<>();
-            session.setAttribute(CART_SESSION_KEY, cart);
-        }
-        return cart;
-    }
+    private final CartStore cartStore;
 
-    public CartItem addProduct(ProductDto product, HttpSession session) {
-        Map<Long, CartItem> cart = getCart(session);
-        CartItem cartItem = cart.get(product.getId());
-        if (cartItem == null) {
-            cartItem = new CartItem(product.getId(), product.getName(), product.getPrice());
-            cart.put(product.getId(), cartItem);
-        }
-        cartItem.incrementQuantity();
-        updateSummaryAttributes(session, cart.values());
-        return cartItem;
+    public CartService(CartStore cartStore) {
+        this.cartStore = cartStore;
     }
 
-    public List<CartItem> getItems(HttpSession session) {
-        return new ArrayList<>(getCart(session).values());
+    private Cart loadCart(HttpServletRequest request, HttpServletResponse response) {
+        Cart cart = (Cart) request.getAttribute(CART_REQUEST_ATTRIBUTE);
+        if (cart == null) {
+            cart = cartStore.load(request, response);
+            request.setAttribute(CART_REQUEST_ATTRIBUTE, cart);
+        }
+        return cart;
     }
 
-    public boolean containsProduct(Long productId, HttpSession session) {
-        return getCart(session).containsKey(productId);
+    private <T> T update(HttpServletRequest request, HttpServletResponse response, Function<Cart, T> change) {
+        return cartStore.update(request, response, loadCart(request, response), change);
     }
 
-    public CartItem updateQuantity(Long productId, int quantity, HttpSession session) {
-        Map<Long, CartItem> cart = getCart(session);
-        CartItem cartItem = cart.get(productId);
-        if (cartItem == null) {
-            return null;
-        }
-
-        if (quantity <= 0) {
-            cart.remove(productId);
-            updateSummaryAttributes(session, cart.values());
-            return null;
-        }
-
-        cartItem.setQuantity(quantity);
-        updateSummaryAttributes(session, cart.values());
-        return cartItem;
+    /**
+     * All lines and totals of the request's cart as of one moment.
+     */
+    public Cart.Snapshot getCart(HttpServletRequest request, HttpServletResponse response) {
+        return loadCart(request, response).snapshot();
     }
 
-    public boolean removeProduct(Long productId, HttpSession session) {
-        Map<Long, CartItem> cart = getCart(session);
-        CartItem removed = cart.remove(productId);
-        if (removed != null) {
-            updateSummaryAttributes(session, cart.values());
-            return true;
-        }
-        return false;
+    public Cart.Change addProduct(ProductDto product, HttpServletRequest request, HttpServletResponse response) {
+        return update(request, response, cart -> cart.add(product.getId(), product.getName(), Money.of(product.getPrice())));
     }
 
-    public void clearCart(HttpSession session) {
-        Map<Long, CartItem> cart = getCart(session);
-        cart.clear();
-        updateSummaryAttributes(session, cart.values());
+    /**
+     * Sets the quantity of a line, removing it when {@code quantity <= 0}. Returns null when the
+     * product is not in the cart.
+     */
+    public Cart.Change updateQuantity(Long productId, int quantity, HttpServletRequest request, HttpServletResponse response) {
+        return update(request, response, cart -> cart.setQuantity(productId, quantity));
     }
 
-    public int getTotalQuantity(HttpSession session) {
-        Map<Long, CartItem> cart = getCart(session);
-        int totalQuantity = cart.values().stream()
-                .mapToInt(CartItem::getQuantity)
-                .sum();
-        session.setAttribute(CART_TOTAL_QUANTITY_KEY, totalQuantity);
-        return totalQuantity;
+    /**
+     * Returns null when the product is not in the cart.
+     */
+    public Cart.Change removeProduct(Long productId, HttpServletRequest request, HttpServletResponse response) {
+        return update(request, response, cart -> cart.remove(productId));
     }
 
-    public BigDecimal getTotalPrice(HttpSession session) {
-        Map<Long, CartItem> cart = getCart(session);
-        BigDecimal totalPrice = cart.values().stream()
-                .map(CartItem::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .setScale(2, RoundingMode.HALF_UP);
-        session.setAttribute(CART_TOTAL_PRICE_KEY, totalPrice);
-        return totalPrice;
+    /**
+     * Brings the cart in line with a checkout revalidation: lines whose product is gone are
+     * removed, the others take the current price.
+     */
+    public Cart.Snapshot applyChanges(List<CheckoutRevalidationService.LineChange> changes,
+                                      HttpServletRequest request, HttpServletResponse response) {
+        return update(request, response, cart -> {
+            for (CheckoutRevalidationService.LineChange change : changes) {
+                if (change.isRemoved()) {
+                    cart.remove(change.productId());
+                } else {
+                    cart.reprice(change.productId(), change.currentPrice());
+                }
+            }
+            return cart.snapshot();
+        });
     }
 
-    private void updateSummaryAttributes(HttpSession session, Collection<CartItem> items) {
-        int totalQuantity = items.stream()
-                .mapToInt(CartItem::getQuantity)
-                .sum();
-        BigDecimal totalPrice = items.stream()
-                .map(CartItem::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .setScale(2, RoundingMode.HALF_UP);
-
-        session.setAttribute(CART_TOTAL_QUANTITY_KEY, totalQuantity);
-        session.setAttribute(CART_TOTAL_PRICE_KEY, totalPrice);
+    public void clearCart(HttpServletRequest request, HttpServletResponse response) {
+        update(request, response, cart -> {
+            cart.clear();
+            return cart;
+        });
     }
 }
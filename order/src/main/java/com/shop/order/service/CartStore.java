@@ -0,0 +1,30 @@
+package com.shop.order.service;
+
+import com.shop.order.model.Cart;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.util.function.Function;
+
+/**
+ * Where carts live between requests. {@link CartService} loads the cart once per request and
+ * changes it through {@link #update}; stores decide how the cart is identified (session, cookie)
+ * and persisted. Selected with {@code app.cart.store} by
+ * {@link com.shop.order.config.CartStoreConfig}.
+ */
+public interface CartStore {
+
+    /**
+     * The request's cart, or a new empty one when it has none yet. A store that identifies carts
+     * by cookie may issue that cookie here, so the shopper's next requests share one cart.
+     */
+    Cart load(HttpServletRequest request, HttpServletResponse response);
+
+    /**
+     * Applies {@code change} to {@code cart}, the cart {@link #load} returned for this request, and
+     * stores the result unless the change returned null. Returns what the change returned. A store
+     * whose carts can be changed by other requests in the meantime may refresh {@code cart} with
+     * the stored version and run the change again, so it must depend on nothing but the cart.
+     */
+    <T> T update(HttpServletRequest request, HttpServletResponse response, Cart cart, Function<Cart, T> change);
+}
@@ -0,0 +1,15 @@
+package com.shop.order.service;
+
+/**
+ * The cart no longer fits the configured limit of its store; the change that caused it is not saved.
+ */
+public class CartTooLargeException extends RuntimeException {
+
+    public CartTooLargeException(int size, int limit) {
+        this(size, limit, "bytes");
+    }
+
+    public CartTooLargeException(int size, int limit, String unit) {
+        super("Cart is too large (" + size + " > " + limit + " " + unit + ")");
+    }
+}
@@ -0,0 +1,104 @@
+package com.shop.order.service;
+
+import com.shop.order.client.ProductClient;
+import com.shop.order.client.ProductClient.ProductLookupResult;
+import com.shop.order.client.dto.ProductDto;
+import com.shop.order.model.Cart;
+import com.shop.order.model.CartItem;
+import com.shop.order.model.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks a cart against the product service right before it becomes an order, since each line
+ * still carries the price seen when it was added. All lines are looked up at once through the
+ * batch endpoint (chunks in parallel), and the whole check is bounded by {@code deadline} however
+ * big the cart is.
+ */
+@Service
+public class CheckoutRevalidationService {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutRevalidationService.class);
+
+    private final ProductClient productClient;
+    private final boolean enabled;
+    private final Duration deadline;
+
+    public CheckoutRevalidationService(ProductClient productClient,
+                                       @Value("${app.checkout.revalidation.enabled:true}") boolean enabled,
+                                       @Value("${app.checkout.revalidation.deadline:2s}") Duration deadline) {
+        this.productClient = productClient;
+        this.enabled = enabled;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Lists the lines whose product is gone or whose price changed. The result is unverified when
+     * not every line could be checked within the deadline.
+     */
+    public Result revalidate(Cart.Snapshot cart) {
+        if (!enabled || cart.isEmpty()) {
+            return Result.unchanged();
+        }
+        List<Long> productIds = cart.items().stream().map(CartItem::getProductId).toList();
+        Map<Long, ProductLookupResult> lookups = productClient.getProductsByIdsAsync(productIds)
+                .completeOnTimeout(null, deadline.toMillis(), TimeUnit.MILLISECONDS)
+                .join();
+        if (lookups == null) {
+            log.warn("Could not revalidate {} cart line(s) within {}", productIds.size(), deadline);
+            return Result.unverified();
+        }
+
+        List<LineChange> changes = new ArrayList<>();
+        for (CartItem item : cart.items()) {
+            ProductLookupResult lookup = lookups.get(item.getProductId());
+            if (lookup == null || lookup.isError()) {
+                return Result.unverified();
+            }
+            ProductDto product = lookup.getProduct();
+            if (lookup.isNotFound() || product == null || product.getPrice() == null) {
+                changes.add(new LineChange(item.getProductId(), item.getName(), item.getQuantity(), item.getPrice(), null));
+                continue;
+            }
+            Money currentPrice = Money.of(product.getPrice());
+            if (!currentPrice.equals(item.getPrice())) {
+                changes.add(new LineChange(item.getProductId(), item.getName(), item.getQuantity(), item.getPrice(), currentPrice));
+            }
+        }
+        return new Result(true, List.copyOf(changes));
+    }
+
+    /**
+     * A line that no longer matches the catalog; {@code currentPrice} is null when the product is
+     * no longer available.
+     */
+    public record LineChange(Long productId, String name, int quantity, Money previousPrice, Money currentPrice) {
+
+        public boolean isRemoved() {
+            return currentPrice == null;
+        }
+    }
+
+    public record Result(boolean verified, List<LineChange> changes) {
+
+        static Result unchanged() {
+            return new Result(true, List.of());
+        }
+
+        static Result unverified() {
+            return new Result(false, List.of());
+        }
+
+        public boolean hasChanges() {
+            return !changes.isEmpty();
+        }
+    }
+}
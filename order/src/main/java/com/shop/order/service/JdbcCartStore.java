@@ -0,0 +1,184 @@
+package com.shop.order.service;
+
+import com.shop.order.model.Cart;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Keeps carts in the {@code carts} table, encoded with {@link CartCodec} and identified by a
+ * random id in a cookie, so any instance can serve any cart. Every change is written before the
+ * response goes out, and only on top of the version that was read: when a parallel request (on
+ * any instance) stored the cart first, the change is applied again to the newer cart. The cookie
+ * is issued the first time a shopper's cart is read, so the requests that follow share one id.
+ */
+public class JdbcCartStore implements CartStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcCartStore.class);
+
+    private static final String CART_ID_ATTRIBUTE = JdbcCartStore.class.getName() + ".cartId";
+    // Version of the cart as this request last read or wrote it; 0 while it has no row.
+    private static final String CART_VERSION_ATTRIBUTE = JdbcCartStore.class.getName() + ".version";
+    // Conflicts need parallel writes to one shopper's cart, so a few rounds settle them.
+    private static final int MAX_ATTEMPTS = 5;
+
+    private static final String SELECT_SQL = "SELECT content, version FROM carts WHERE id = ?";
+    private static final String INSERT_SQL = "INSERT INTO carts (id, content, version, updated_at) VALUES (?, ?, 1, ?)";
+    // Emptied carts keep their row (with empty content) so its version keeps counting.
+    private static final String UPDATE_SQL = "UPDATE carts SET content = ?, version = version + 1, updated_at = ? "
+            + "WHERE id = ? AND version = ?";
+    private static final String EXPIRE_SQL = "DELETE FROM carts WHERE updated_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String cookieName;
+    private final boolean secureCookie;
+    private final Duration ttl;
+
+    public JdbcCartStore(JdbcTemplate jdbcTemplate,
+                         @Value("${app.cart.cookie.name:CART_ID}") String cookieName,
+                         @Value("${app.cart.cookie.secure:false}") boolean secureCookie,
+                         @Value("${app.cart.jdbc.ttl:30d}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cookieName = cookieName;
+        this.secureCookie = secureCookie;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Cart load(HttpServletRequest request, HttpServletResponse response) {
+        String cartId = cartId(request);
+        if (cartId == null) {
+            cartId = UUID.randomUUID().toString();
+            request.setAttribute(CART_ID_ATTRIBUTE, cartId);
+            request.setAttribute(CART_VERSION_ATTRIBUTE, 0L);
+            issueCookie(response, cartId);
+            return new Cart();
+        }
+        return read(request, cartId);
+    }
+
+    /**
+     * @throws CartTooLargeException when the cart has more lines than {@link CartCodec} stores
+     * @throws OptimisticLockingFailureException when parallel requests kept changing the cart
+     */
+    @Override
+    public <T> T update(HttpServletRequest request, HttpServletResponse response, Cart cart, Function<Cart, T> change) {
+        String cartId = cartId(request);
+        for (int attempt = 1; ; attempt++) {
+            T result = change.apply(cart);
+            if (result == null) {
+                return null;
+            }
+            if (write(request, cartId, cart.snapshot())) {
+                // Re-issued on every change so the cookie expires ttl after the last activity, like the row.
+                issueCookie(response, cartId);
+                return result;
+            }
+            if (attempt == MAX_ATTEMPTS) {
+                throw new OptimisticLockingFailureException("Cart " + cartId + " kept changing during " + MAX_ATTEMPTS + " attempts");
+            }
+            cart.replaceLines(read(request, cartId).snapshot().items());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cart.jdbc.cleanup-interval:1h}", initialDelayString = "${app.cart.jdbc.cleanup-interval:1h}")
+    public void expire() {
+        try {
+            int removed = jdbcTemplate.update(EXPIRE_SQL, Timestamp.from(Instant.now().minus(ttl)));
+            if (removed > 0) {
+                log.info("Removed {} cart(s) idle for more than {}", removed, ttl);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not remove expired carts: {}", e.getMessage());
+        }
+    }
+
+    private Cart read(HttpServletRequest request, String cartId) {
+        Stored stored = jdbcTemplate.query(SELECT_SQL,
+                rs -> rs.next() ? new Stored(rs.getBytes(1), rs.getLong(2)) : new Stored(null, 0L), cartId);
+        request.setAttribute(CART_VERSION_ATTRIBUTE, stored.version());
+        if (stored.content() == null || stored.content().length == 0) {
+            return new Cart();
+        }
+        try {
+            return CartCodec.decode(stored.content());
+        } catch (IllegalArgumentException e) {
+            log.warn("Discarding unreadable cart {}: {}", cartId, e.getMessage());
+            return new Cart();
+        }
+    }
+
+    // False when another request wrote the cart since this one read it.
+    private boolean write(HttpServletRequest request, String cartId, Cart.Snapshot snapshot) {
+        long version = (Long) request.getAttribute(CART_VERSION_ATTRIBUTE);
+        if (version == 0 && snapshot.isEmpty()) {
+            return true;
+        }
+        byte[] content = snapshot.isEmpty() ? new byte[0] : CartCodec.encode(snapshot.items());
+        Timestamp now = Timestamp.from(Instant.now());
+        if (version == 0) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, cartId, content, now);
+            } catch (DuplicateKeyException e) {
+                return false;
+            }
+        } else if (jdbcTemplate.update(UPDATE_SQL, content, now, cartId, version) == 0) {
+            return false;
+        }
+        request.setAttribute(CART_VERSION_ATTRIBUTE, version + 1);
+        return true;
+    }
+
+    private void issueCookie(HttpServletResponse response, String cartId) {
+        ResponseCookie cookie = ResponseCookie.from(cookieName, cartId)
+                .path("/")
+                .httpOnly(true)
+                .secure(secureCookie)
+                .sameSite("Lax")
+                .maxAge(ttl)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    private String cartId(HttpServletRequest request) {
+        Object assigned = request.getAttribute(CART_ID_ATTRIBUTE);
+        if (assigned instanceof String id) {
+            return id;
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (cookieName.equals(cookie.getName())) {
+                try {
+                    String id = UUID.fromString(cookie.getValue()).toString();
+                    request.setAttribute(CART_ID_ATTRIBUTE, id);
+                    return id;
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private record Stored(byte[] content, long version) {
+    }
+}
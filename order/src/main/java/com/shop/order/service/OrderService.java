@@ -3,6 +3,7 @@ package com.shop.order.service;
 import com.shop.order.messaging.OrderMessagePublisher;
 import com.shop.order.model.CartItem;
 import com.shop.order.model.CheckoutForm;
+import com.shop.order.model.Money;
 import com.shop.order.model.Order;
 import com.shop.order.model.OrderItem;
 import com.shop.order.model.OrderStatus;
@@ -10,8 +11,6 @@ import com.shop.order.repository.OrderRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -33,7 +32,7 @@ public class OrderService {
     public Order createOrder(CheckoutForm checkoutForm,
                              List<CartItem> items,
                              int totalQuantity,
-                             BigDecimal totalPrice,
+                             Money totalPrice,
                              Long userId) {
         Order order = new Order();
         order.setId(UUID.randomUUID().toString());
@@ -49,7 +48,7 @@ public class OrderService {
         order.setNotes(checkoutForm.getNotes());
         order.setStatus(OrderStatus.NEW);
         order.setTotalQuantity(totalQuantity);
-        order.setTotalPrice(totalPrice == null ? BigDecimal.ZERO : totalPrice.setScale(2, RoundingMode.HALF_UP));
+        order.setTotalPrice((totalPrice == null ? Money.ZERO : totalPrice).toBigDecimal());
         order.setUserId(userId);
 
         String cardNumber = checkoutForm.getCardNumber();
@@ -66,14 +65,8 @@ public class OrderService {
             orderItem.setProductId(cartItem.getProductId());
             orderItem.setProductName(cartItem.getName());
             orderItem.setQuantity(cartItem.getQuantity());
-            BigDecimal unitPrice = cartItem.getPrice() == null
-                    ? BigDecimal.ZERO
-                    : cartItem.getPrice().setScale(2, RoundingMode.HALF_UP);
-            BigDecimal subtotal = cartItem.getSubtotal() == null
-                    ? unitPrice.multiply(BigDecimal.valueOf(cartItem.getQuantity()))
-                    : cartItem.getSubtotal().setScale(2, RoundingMode.HALF_UP);
-            orderItem.setUnitPrice(unitPrice);
-            orderItem.setSubtotal(subtotal);
+            orderItem.setUnitPrice(cartItem.getPrice().toBigDecimal());
+            orderItem.setSubtotal(cartItem.getSubtotal().toBigDecimal());
             order.getItems().add(orderItem);
         }
 
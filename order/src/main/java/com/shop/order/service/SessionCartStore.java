@@ -0,0 +1,54 @@
+package com.shop.order.service;
+
+import com.shop.order.model.Cart;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.util.WebUtils;
+
+import java.util.function.Function;
+
+/**
+ * Default store: the cart and its totals are HttpSession attributes, so a cart is only visible on
+ * the instance (or session replica) that holds the session. Parallel requests of one session share
+ * the same {@link Cart}, which serializes their changes.
+ */
+public class SessionCartStore implements CartStore {
+
+    private static final String CART_SESSION_KEY = "cart";
+    private static final String CART_TOTAL_QUANTITY_KEY = "cartTotalQuantity";
+    private static final String CART_TOTAL_PRICE_KEY = "cartTotalPrice";
+
+    @Override
+    public Cart load(HttpServletRequest request, HttpServletResponse response) {
+        HttpSession session = request.getSession();
+        // Two first requests of a session must not each install their own cart.
+        synchronized (WebUtils.getSessionMutex(session)) {
+            Cart cart = (Cart) session.getAttribute(CART_SESSION_KEY);
+            if (cart == null) {
+                cart = new Cart();
+                session.setAttribute(CART_SESSION_KEY, cart);
+            }
+            return cart;
+        }
+    }
+
+    @Override
+    public <T> T update(HttpServletRequest request, HttpServletResponse response, Cart cart, Function<Cart, T> change) {
+        T result = change.apply(cart);
+        if (result != null) {
+            save(request, cart);
+        }
+        return result;
+    }
+
+    private void save(HttpServletRequest request, Cart cart) {
+        HttpSession session = request.getSession();
+        Cart.Totals totals = cart.getTotals();
+        // Setting the attribute again marks it dirty for session managers that replicate on change.
+        session.setAttribute(CART_SESSION_KEY, cart);
+        session.setAttribute(CART_TOTAL_QUANTITY_KEY, totals.quantity());
+        // The session attribute feeds views, so it keeps the BigDecimal form.
+        session.setAttribute(CART_TOTAL_PRICE_KEY, totals.price().toBigDecimal());
+    }
+}
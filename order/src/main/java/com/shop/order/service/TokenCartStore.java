@@ -0,0 +1,282 @@
+package com.shop.order.service;
+
+import com.shop.order.model.Cart;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Keeps the whole cart on the client: a {@link CartCodec} payload, deflated when that makes it
+ * smaller, signed with HMAC-SHA256 and sent back as a cookie and an {@code X-Cart-Token} header on
+ * every change. Requests present it in either; nothing is stored server-side, so no session or
+ * sticky routing is needed.
+ * <p>
+ * Token layout before base64url: format, flags, key id (2 bytes), issue time (epoch seconds,
+ * 4 bytes), payload, truncated MAC (16 bytes). The first configured secret signs; the others are
+ * still accepted, so a secret can be rotated by prepending the new one and dropping the old one
+ * once {@code ttl} has passed. Tokens that fail verification, have expired or are malformed are
+ * treated as an empty cart.
+ */
+public class TokenCartStore implements CartStore {
+
+    public static final String TOKEN_HEADER = "X-Cart-Token";
+
+    private static final Logger log = LoggerFactory.getLogger(TokenCartStore.class);
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final byte FORMAT = 1;
+    private static final byte FLAG_DEFLATED = 1;
+    private static final int HEADER_LENGTH = 8;
+    private static final int MAC_LENGTH = 16;
+    private static final int MIN_SECRET_BYTES = 32;
+    // Deflating tiny carts only adds overhead.
+    private static final int DEFLATE_THRESHOLD = 96;
+    // Inflated payloads are capped so a small token cannot expand into a large allocation.
+    private static final int MAX_PAYLOAD_BYTES = 64 * 1024;
+
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_DECODER = Base64.getUrlDecoder();
+
+    private final List<SigningKey> keys;
+    private final String cookieName;
+    private final boolean secureCookie;
+    private final Duration ttl;
+    private final int maxTokenLength;
+
+    public TokenCartStore(@Value("${app.cart.token.secrets:}") List<String> secrets,
+                          @Value("${app.cart.token.cookie-name:CART_TOKEN}") String cookieName,
+                          @Value("${app.cart.cookie.secure:false}") boolean secureCookie,
+                          @Value("${app.cart.token.ttl:30d}") Duration ttl,
+                          @Value("${app.cart.token.max-length:3800}") int maxTokenLength) {
+        this.keys = secrets.stream()
+                .map(String::trim)
+                .filter(secret -> !secret.isEmpty())
+                .map(SigningKey::new)
+                .toList();
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("app.cart.token.secrets must list at least one secret when app.cart.store=token");
+        }
+        this.cookieName = cookieName;
+        this.secureCookie = secureCookie;
+        this.ttl = ttl;
+        this.maxTokenLength = maxTokenLength;
+    }
+
+    @Override
+    public Cart load(HttpServletRequest request, HttpServletResponse response) {
+        String token = request.getHeader(TOKEN_HEADER);
+        if (token == null || token.isBlank()) {
+            token = cookieValue(request);
+        }
+        if (token == null || token.isBlank()) {
+            return new Cart();
+        }
+        try {
+            return decode(token.trim());
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring cart token: {}", e.getMessage());
+            return new Cart();
+        }
+    }
+
+    /**
+     * @throws CartTooLargeException when the signed cart would exceed {@code max-length}
+     */
+    @Override
+    public <T> T update(HttpServletRequest request, HttpServletResponse response, Cart cart, Function<Cart, T> change) {
+        T result = change.apply(cart);
+        if (result != null) {
+            save(response, cart);
+        }
+        return result;
+    }
+
+    private void save(HttpServletResponse response, Cart cart) {
+        Cart.Snapshot snapshot = cart.snapshot();
+        String token = snapshot.isEmpty() ? "" : encode(snapshot);
+        if (token.length() > maxTokenLength) {
+            throw new CartTooLargeException(token.length(), maxTokenLength);
+        }
+        ResponseCookie cookie = ResponseCookie.from(cookieName, token)
+                .path("/")
+                .httpOnly(true)
+                .secure(secureCookie)
+                .sameSite("Lax")
+                .maxAge(snapshot.isEmpty() ? Duration.ZERO : ttl)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        response.setHeader(TOKEN_HEADER, token);
+    }
+
+    String encode(Cart.Snapshot cart) {
+        byte[] payload = CartCodec.encode(cart.items());
+        byte flags = 0;
+        if (payload.length > DEFLATE_THRESHOLD) {
+            byte[] deflated = deflate(payload);
+            if (deflated.length < payload.length) {
+                payload = deflated;
+                flags |= FLAG_DEFLATED;
+            }
+        }
+        SigningKey key = keys.get(0);
+        ByteBuffer token = ByteBuffer.allocate(HEADER_LENGTH + payload.length + MAC_LENGTH);
+        token.put(FORMAT)
+                .put(flags)
+                .putShort(key.id)
+                .putInt((int) Instant.now().getEpochSecond())
+                .put(payload);
+        token.put(key.sign(token.array(), token.position()));
+        return BASE64.encodeToString(token.array());
+    }
+
+    /**
+     * @throws IllegalArgumentException when the token is malformed, unsigned by a known key or expired
+     */
+    Cart decode(String token) {
+        if (token.length() > maxTokenLength) {
+            throw new IllegalArgumentException("Token too long");
+        }
+        byte[] bytes = BASE64_DECODER.decode(token);
+        if (bytes.length < HEADER_LENGTH + MAC_LENGTH || bytes[0] != FORMAT) {
+            throw new IllegalArgumentException("Unknown token format");
+        }
+        ByteBuffer header = ByteBuffer.wrap(bytes, 0, HEADER_LENGTH);
+        header.get();
+        byte flags = header.get();
+        short keyId = header.getShort();
+        long issuedAt = Integer.toUnsignedLong(header.getInt());
+
+        SigningKey key = keyFor(keyId);
+        int signedLength = bytes.length - MAC_LENGTH;
+        byte[] mac = Arrays.copyOfRange(bytes, signedLength, bytes.length);
+        if (!MessageDigest.isEqual(mac, key.sign(bytes, signedLength))) {
+            throw new IllegalArgumentException("Bad signature");
+        }
+        if (Instant.now().getEpochSecond() - issuedAt > ttl.toSeconds()) {
+            throw new IllegalArgumentException("Token expired");
+        }
+
+        byte[] payload = Arrays.copyOfRange(bytes, HEADER_LENGTH, signedLength);
+        if ((flags & FLAG_DEFLATED) != 0) {
+            payload = inflate(payload);
+        }
+        return CartCodec.decode(payload);
+    }
+
+    private SigningKey keyFor(short keyId) {
+        for (SigningKey key : keys) {
+            if (key.id == keyId) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("Unknown signing key");
+    }
+
+    private String cookieValue(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (cookieName.equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length);
+            byte[] buffer = new byte[512];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 4);
+            byte[] buffer = new byte[512];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated payload");
+                }
+                out.write(buffer, 0, count);
+                if (out.size() > MAX_PAYLOAD_BYTES) {
+                    throw new IllegalArgumentException("Payload too large");
+                }
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static final class SigningKey {
+
+        private final short id;
+        private final Mac prototype;
+
+        SigningKey(String secret) {
+            byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (secretBytes.length < MIN_SECRET_BYTES) {
+                throw new IllegalStateException("Cart token secrets must be at least " + MIN_SECRET_BYTES + " bytes");
+            }
+            try {
+                // The key id is derived from the secret, so it stays stable while secrets are rotated.
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(secretBytes);
+                this.id = (short) (((digest[0] & 0xFF) << 8) | (digest[1] & 0xFF));
+                this.prototype = Mac.getInstance(HMAC_ALGORITHM);
+                prototype.init(new SecretKeySpec(secretBytes, HMAC_ALGORITHM));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", e);
+            }
+        }
+
+        byte[] sign(byte[] data, int length) {
+            try {
+                // Mac instances are not thread-safe; cloning an initialised one is cheaper than init.
+                Mac mac = (Mac) prototype.clone();
+                mac.update(data, 0, length);
+                return Arrays.copyOf(mac.doFinal(), MAC_LENGTH);
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
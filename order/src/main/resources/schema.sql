@@ -28,3 +28,12 @@ CREATE TABLE IF NOT EXISTS order_items (
     subtotal DECIMAL(12, 2) NOT NULL,
     CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE
 );
+
+-- version counts the writes of a cart; updates only apply on top of the version they read.
+CREATE TABLE IF NOT EXISTS carts (
+    id VARCHAR(36) PRIMARY KEY,
+    content MEDIUMBLOB NOT NULL,
+    version BIGINT NOT NULL,
+    updated_at DATETIME NOT NULL,
+    INDEX idx_carts_updated_at (updated_at)
+);
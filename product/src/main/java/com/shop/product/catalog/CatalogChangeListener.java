@@ -0,0 +1,29 @@
+package com.shop.product.catalog;
+
+import com.shop.product.model.Product;
+
+import java.util.Set;
+
+/**
+ * Receives catalog writes after the surrounding transaction has committed.
+ * Products passed in are detached copies and may be retained by the listener.
+ */
+public interface CatalogChangeListener {
+
+    void onProductSaved(Product product);
+
+    /**
+     * Variant that also names the fields the write changed; listeners that only care about the new
+     * state can ignore it.
+     */
+    default void onProductSaved(Product product, Set<String> changedFields) {
+        onProductSaved(product);
+    }
+
+    void onProductDeleted(Long productId);
+
+    /**
+     * Many products changed at once (bulk import or bulk update); derived state should be rebuilt.
+     */
+    void onCatalogChanged();
+}
@@ -0,0 +1,73 @@
+package com.shop.product.catalog;
+
+import com.shop.product.model.Product;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+
+@Component
+public class CatalogChangePublisher {
+
+    private final List<CatalogChangeListener> listeners;
+    private final CatalogVersion catalogVersion;
+
+    public CatalogChangePublisher(List<CatalogChangeListener> listeners, CatalogVersion catalogVersion) {
+        this.listeners = List.copyOf(listeners);
+        this.catalogVersion = catalogVersion;
+    }
+
+    public void productSaved(Product product, Set<String> changedFields) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        Set<String> fields = Set.copyOf(changedFields);
+        catalogVersion.recordWrite();
+        // Copied once committed so the copy carries the version assigned at flush time.
+        runAfterCommit(() -> {
+            Product copy = copyOf(product);
+            listeners.forEach(listener -> listener.onProductSaved(copy, fields));
+        });
+    }
+
+    public void productDeleted(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        catalogVersion.recordWrite();
+        runAfterCommit(() -> listeners.forEach(listener -> listener.onProductDeleted(productId)));
+    }
+
+    public void catalogChanged() {
+        catalogVersion.recordWrite();
+        runAfterCommit(() -> listeners.forEach(CatalogChangeListener::onCatalogChanged));
+    }
+
+    private void runAfterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    private static Product copyOf(Product product) {
+        Product copy = new Product(
+                product.getId(),
+                product.getName(),
+                product.getCategory(),
+                product.getPrice(),
+                product.getDescription(),
+                product.getImageUrl()
+        );
+        copy.setVersion(product.getVersion());
+        return copy;
+    }
+}
@@ -0,0 +1,213 @@
+package com.shop.product.catalog;
+
+import com.shop.product.config.PrimaryReads;
+import com.shop.product.model.Money;
+import com.shop.product.model.Product;
+import com.shop.product.repository.ProductRepository;
+import com.shop.product.repository.ProductRepositoryCustom.CategoryPriceCount;
+import com.shop.product.service.ProductFacets;
+import com.shop.product.service.ProductFacets.CategoryCount;
+import com.shop.product.service.ProductFacets.PriceBucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-category price histograms maintained incrementally from catalog writes. Requests without a
+ * search term whose price bounds fall on bucket boundaries are answered from these counters;
+ * anything narrower is built with {@link #aggregate} from grouped counts of the matching products,
+ * or from the products themselves when they are already in memory.
+ */
+@Component
+public class CatalogFacets implements CatalogChangeListener {
+
+    private final ProductRepository productRepository;
+    private final PrimaryReads primaryReads;
+    private final long bucketWidth;
+    private final int bucketCount;
+
+    // A lock rather than synchronized: the first read streams the catalog from the database while
+    // holding it, which would pin the carrier thread of a virtual thread.
+    private final Lock lock = new ReentrantLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<String, long[]> counts = new HashMap<>();
+    private boolean loaded;
+
+    public CatalogFacets(ProductRepository productRepository,
+                         PrimaryReads primaryReads,
+                         @Value("${app.catalog.facets.bucket-width:1000}") BigDecimal bucketWidth,
+                         @Value("${app.catalog.facets.bucket-count:20}") int bucketCount) {
+        this.productRepository = productRepository;
+        this.primaryReads = primaryReads;
+        this.bucketWidth = Math.max(1L, Money.of(bucketWidth).minorUnits());
+        this.bucketCount = Math.max(1, bucketCount);
+    }
+
+    /**
+     * True when the counters alone can answer a filter with these (normalized) price bounds:
+     * the lower bound starts a bucket and the upper bound is the last cent of one.
+     */
+    public boolean canAnswer(Money minPrice, Money maxPrice) {
+        if (minPrice != null) {
+            long min = minPrice.minorUnits();
+            if (min % bucketWidth != 0 || min / bucketWidth >= bucketCount) {
+                return false;
+            }
+        }
+        if (maxPrice != null) {
+            long max = maxPrice.minorUnits();
+            if (max == Long.MAX_VALUE || (max + 1) % bucketWidth != 0 || (max + 1) / bucketWidth >= bucketCount) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public ProductFacets fromCounters(Money minPrice, Money maxPrice) {
+        lock.lock();
+        try {
+            return countersFor(minPrice, maxPrice);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ProductFacets countersFor(Money minPrice, Money maxPrice) {
+        ensureLoaded();
+        int fromBucket = minPrice == null ? 0 : (int) (minPrice.minorUnits() / bucketWidth);
+        int toBucket = maxPrice == null ? bucketCount - 1 : (int) ((maxPrice.minorUnits() + 1) / bucketWidth) - 1;
+
+        long[] histogram = new long[bucketCount];
+        Map<String, Long> categories = new HashMap<>();
+        counts.forEach((category, buckets) -> {
+            long categoryTotal = 0;
+            for (int bucket = fromBucket; bucket <= toBucket; bucket++) {
+                histogram[bucket] += buckets[bucket];
+                categoryTotal += buckets[bucket];
+            }
+            if (categoryTotal > 0) {
+                categories.put(category, categoryTotal);
+            }
+        });
+        return toFacets(categories, histogram);
+    }
+
+    public ProductFacets aggregate(List<CategoryPriceCount> counts) {
+        long[] histogram = new long[bucketCount];
+        Map<String, Long> categories = new HashMap<>();
+        for (CategoryPriceCount count : counts) {
+            histogram[bucketOf(count.price())] += count.count();
+            categories.merge(count.category(), count.count(), Long::sum);
+        }
+        return toFacets(categories, histogram);
+    }
+
+    public ProductFacets aggregateProducts(List<Product> products) {
+        long[] histogram = new long[bucketCount];
+        Map<String, Long> categories = new HashMap<>();
+        for (Product product : products) {
+            histogram[bucketOf(product.getPrice())]++;
+            categories.merge(product.getCategory(), 1L, Long::sum);
+        }
+        return toFacets(categories, histogram);
+    }
+
+    @Override
+    public void onProductSaved(Product product) {
+        lock.lock();
+        try {
+            if (loaded) {
+                remove(product.getId());
+                add(product);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Long productId) {
+        lock.lock();
+        try {
+            if (loaded) {
+                remove(productId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void onCatalogChanged() {
+        lock.lock();
+        try {
+            entries.clear();
+            counts.clear();
+            loaded = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            primaryReads.run(() -> productRepository.streamAll(this::add));
+            loaded = true;
+        }
+    }
+
+    private void add(Product product) {
+        Entry entry = new Entry(product.getCategory(), bucketOf(product.getPrice()));
+        entries.put(product.getId(), entry);
+        counts.computeIfAbsent(entry.category(), key -> new long[bucketCount])[entry.bucket()]++;
+    }
+
+    private void remove(Long productId) {
+        Entry entry = entries.remove(productId);
+        if (entry == null) {
+            return;
+        }
+        long[] buckets = counts.get(entry.category());
+        buckets[entry.bucket()]--;
+        for (long count : buckets) {
+            if (count != 0) {
+                return;
+            }
+        }
+        counts.remove(entry.category());
+    }
+
+    private int bucketOf(BigDecimal amount) {
+        long price = Money.of(amount).minorUnits();
+        return (int) Math.min(Math.max(price, 0) / bucketWidth, bucketCount - 1);
+    }
+
+    private ProductFacets toFacets(Map<String, Long> categories, long[] histogram) {
+        List<CategoryCount> categoryCounts = categories.entrySet().stream()
+                .map(entry -> new CategoryCount(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(CategoryCount::count).reversed()
+                        .thenComparing(CategoryCount::category, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+
+        List<PriceBucket> buckets = new ArrayList<>(bucketCount);
+        long total = 0;
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            BigDecimal from = BigDecimal.valueOf(bucket * bucketWidth, 2);
+            BigDecimal to = bucket == bucketCount - 1 ? null : BigDecimal.valueOf((bucket + 1) * bucketWidth, 2);
+            buckets.add(new PriceBucket(from, to, histogram[bucket]));
+            total += histogram[bucket];
+        }
+        return new ProductFacets(total, categoryCounts, buckets);
+    }
+
+    private record Entry(String category, int bucket) {
+    }
+}
@@ -0,0 +1,280 @@
+package com.shop.product.catalog;
+
+import com.shop.product.model.Money;
+import com.shop.product.model.Product;
+import com.shop.product.service.ProductQuery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable, fully indexed view of the catalog. Products are kept ordered by id; prices are
+ * stored as {@link Money} minor units in an ascending array so price bounds resolve to a binary search, and
+ * every allowed sort order is precomputed as a permutation of product positions.
+ * Writers never modify a snapshot, they derive a new one with {@link #with} / {@link #without}.
+ */
+final class CatalogSnapshot {
+
+    private static final Comparator<Product> BY_NAME = Comparator
+            .comparing(Product::getName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(Product::getId);
+    private static final Comparator<Product> BY_CATEGORY = Comparator
+            .comparing(Product::getCategory, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(Product::getId);
+
+    private final Product[] products;
+    private final long[] ids;
+    private final long[] prices;
+    private final long[] sortedPrices;
+    private final int[] priceOrder;
+    private final int[] priceRank;
+    private final int[] nameOrder;
+    private final int[] nameRank;
+    private final int[] categoryOrder;
+    private final int[] categoryRank;
+    private final String[] searchableNames;
+    private final String[] searchableDescriptions;
+
+    private CatalogSnapshot(Product[] products) {
+        int size = products.length;
+        this.products = products;
+        this.ids = new long[size];
+        this.searchableNames = new String[size];
+        this.searchableDescriptions = new String[size];
+        this.prices = new long[size];
+        for (int i = 0; i < size; i++) {
+            Product product = products[i];
+            ids[i] = product.getId();
+            prices[i] = Money.of(product.getPrice()).minorUnits();
+            searchableNames[i] = lowerCase(product.getName());
+            searchableDescriptions[i] = lowerCase(product.getDescription());
+        }
+
+        this.priceOrder = sortedPositions(size, (a, b) -> {
+            int byPrice = Long.compare(prices[a], prices[b]);
+            return byPrice != 0 ? byPrice : Long.compare(ids[a], ids[b]);
+        });
+        this.sortedPrices = new long[size];
+        for (int slot = 0; slot < size; slot++) {
+            sortedPrices[slot] = prices[priceOrder[slot]];
+        }
+        this.nameOrder = sortedPositions(size, (a, b) -> BY_NAME.compare(products[a], products[b]));
+        this.categoryOrder = sortedPositions(size, (a, b) -> BY_CATEGORY.compare(products[a], products[b]));
+        this.priceRank = invert(priceOrder);
+        this.nameRank = invert(nameOrder);
+        this.categoryRank = invert(categoryOrder);
+    }
+
+    static CatalogSnapshot of(Collection<Product> source) {
+        Product[] products = source.stream()
+                .filter(product -> product.getId() != null)
+                .sorted(Comparator.comparing(Product::getId))
+                .toArray(Product[]::new);
+        return new CatalogSnapshot(products);
+    }
+
+    CatalogSnapshot with(Product product) {
+        int position = Arrays.binarySearch(ids, product.getId());
+        Product[] next;
+        if (position >= 0) {
+            next = products.clone();
+            next[position] = product;
+        } else {
+            int insertAt = -position - 1;
+            next = new Product[products.length + 1];
+            System.arraycopy(products, 0, next, 0, insertAt);
+            next[insertAt] = product;
+            System.arraycopy(products, insertAt, next, insertAt + 1, products.length - insertAt);
+        }
+        return new CatalogSnapshot(next);
+    }
+
+    CatalogSnapshot without(Long productId) {
+        int position = Arrays.binarySearch(ids, productId);
+        if (position < 0) {
+            return this;
+        }
+        Product[] next = new Product[products.length - 1];
+        System.arraycopy(products, 0, next, 0, position);
+        System.arraycopy(products, position + 1, next, position, products.length - position - 1);
+        return new CatalogSnapshot(next);
+    }
+
+    int size() {
+        return products.length;
+    }
+
+    Optional<Product> findById(long productId) {
+        int position = Arrays.binarySearch(ids, productId);
+        return position >= 0 ? Optional.of(products[position]) : Optional.empty();
+    }
+
+    List<Product> query(ProductQuery query) {
+        int fromSlot = query.minPrice() == null
+                ? 0
+                : lowerBound(sortedPrices, query.minPrice().minorUnits());
+        int toSlot = query.maxPrice() == null
+                ? sortedPrices.length
+                : upperBound(sortedPrices, query.maxPrice().minorUnits());
+        if (fromSlot >= toSlot) {
+            return List.of();
+        }
+
+        String search = query.search() == null ? null : query.search().toLowerCase(Locale.ROOT);
+        boolean descending = query.isDescending();
+
+        if ("price".equals(query.sortField())) {
+            List<Product> result = new ArrayList<>(toSlot - fromSlot);
+            for (int i = 0; i < toSlot - fromSlot; i++) {
+                int slot = descending ? toSlot - 1 - i : fromSlot + i;
+                int position = priceOrder[slot];
+                if (matches(position, search)) {
+                    result.add(products[position]);
+                }
+            }
+            return result;
+        }
+
+        int[] positions = new int[toSlot - fromSlot];
+        int count = 0;
+        for (int slot = fromSlot; slot < toSlot; slot++) {
+            int position = priceOrder[slot];
+            if (matches(position, search)) {
+                positions[count++] = position;
+            }
+        }
+        return ordered(positions, count, query);
+    }
+
+    /**
+     * Resolves search hits (ids ordered by descending relevance) against the snapshot, applying the
+     * price bounds of the query and its sort order; {@code relevance} keeps the order of the hits.
+     */
+    List<Product> select(long[] candidateIds, ProductQuery query) {
+        long min = query.minPrice() == null ? Long.MIN_VALUE : query.minPrice().minorUnits();
+        long max = query.maxPrice() == null ? Long.MAX_VALUE : query.maxPrice().minorUnits();
+        int[] positions = new int[candidateIds.length];
+        int count = 0;
+        for (long candidateId : candidateIds) {
+            int position = Arrays.binarySearch(ids, candidateId);
+            if (position >= 0 && prices[position] >= min && prices[position] <= max) {
+                positions[count++] = position;
+            }
+        }
+        if ("relevance".equals(query.sortField())) {
+            // Candidates arrive best first; ascending relevance lists them the other way round.
+            boolean descending = query.isDescending();
+            List<Product> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(products[positions[descending ? i : count - 1 - i]]);
+            }
+            return result;
+        }
+        return ordered(positions, count, query);
+    }
+
+    private List<Product> ordered(int[] positions, int count, ProductQuery query) {
+        int[] order = orderFor(query.sortField());
+        int[] rank = rankFor(query.sortField());
+        int[] ranks = new int[count];
+        for (int i = 0; i < count; i++) {
+            ranks[i] = rank == null ? positions[i] : rank[positions[i]];
+        }
+        Arrays.sort(ranks);
+
+        boolean descending = query.isDescending();
+        List<Product> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int r = descending ? ranks[count - 1 - i] : ranks[i];
+            result.add(products[order == null ? r : order[r]]);
+        }
+        return result;
+    }
+
+    private boolean matches(int position, String search) {
+        if (search == null) {
+            return true;
+        }
+        return searchableNames[position].contains(search) || searchableDescriptions[position].contains(search);
+    }
+
+    private int[] orderFor(String sortField) {
+        if ("price".equals(sortField)) {
+            return priceOrder;
+        }
+        if ("name".equals(sortField)) {
+            return nameOrder;
+        }
+        if ("category".equals(sortField)) {
+            return categoryOrder;
+        }
+        return null;
+    }
+
+    private int[] rankFor(String sortField) {
+        if ("price".equals(sortField)) {
+            return priceRank;
+        }
+        if ("name".equals(sortField)) {
+            return nameRank;
+        }
+        if ("category".equals(sortField)) {
+            return categoryRank;
+        }
+        return null;
+    }
+
+    private static int lowerBound(long[] values, long key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(long[] values, long key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int[] sortedPositions(int size, Comparator<Integer> comparator) {
+        return IntStream.range(0, size)
+                .boxed()
+                .sorted(comparator)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static int[] invert(int[] order) {
+        int[] rank = new int[order.length];
+        for (int r = 0; r < order.length; r++) {
+            rank[order[r]] = r;
+        }
+        return rank;
+    }
+
+    private static String lowerCase(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+}
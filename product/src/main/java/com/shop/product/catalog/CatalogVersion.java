@@ -0,0 +1,111 @@
+package com.shop.product.catalog;
+
+import com.shop.product.model.Product;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions behind the catalog's ETags and caches. The catalog ETag is the revision stored in the
+ * {@code catalog_revision} table, which every write transaction bumps before it commits, so writes
+ * from any instance invalidate it; product ETags come from the persisted product version. Writes
+ * that bypass this service must bump the revision as well.
+ * <p>
+ * {@link #current()} is a separate in-process counter, bumped once a write has committed, that
+ * this instance's caches use to drop results computed before the write; {@link #lastChangeNanos()}
+ * is when that last happened.
+ */
+@Component
+public class CatalogVersion implements CatalogChangeListener {
+
+    private static final String SELECT_REVISION_SQL = "SELECT revision FROM catalog_revision WHERE id = 1";
+    private static final String BUMP_REVISION_SQL = "UPDATE catalog_revision SET revision = revision + 1 WHERE id = 1";
+
+    // Marks a transaction that already bumps the revision, so a bulk write bumps it once.
+    private static final Object REVISION_BUMP = new Object();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicLong version = new AtomicLong();
+    // Far enough in the past that no write counts as recent at startup.
+    private volatile long lastChangeNanos = System.nanoTime() - Long.MAX_VALUE / 2;
+
+    public CatalogVersion(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * {@link System#nanoTime()} of the last write this instance committed.
+     */
+    public long lastChangeNanos() {
+        return lastChangeNanos;
+    }
+
+    /**
+     * Reads the stored revision. Call it in the transaction that reads the response, so the ETag
+     * and the data come from the same snapshot (and the same replica).
+     */
+    public String catalogEtag() {
+        return "\"c" + jdbcTemplate.queryForObject(SELECT_REVISION_SQL, Long.class) + "\"";
+    }
+
+    /**
+     * Bumps the stored revision as part of the current write transaction, or right away outside one.
+     */
+    public void recordWrite() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            jdbcTemplate.update(BUMP_REVISION_SQL);
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(REVISION_BUMP)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(REVISION_BUMP, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // Taken last, so the revision row is only locked while the transaction commits.
+                jdbcTemplate.update(BUMP_REVISION_SQL);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REVISION_BUMP);
+            }
+        });
+    }
+
+    public static String productEtag(Product product) {
+        return productEtag(product.getId(), product.getVersion() == null ? 0L : product.getVersion());
+    }
+
+    public static String productEtag(long productId, long productVersion) {
+        return "\"p" + productId + "-v" + productVersion + "\"";
+    }
+
+    @Override
+    public void onProductSaved(Product product) {
+        changed();
+    }
+
+    @Override
+    public void onProductDeleted(Long productId) {
+        changed();
+    }
+
+    @Override
+    public void onCatalogChanged() {
+        changed();
+    }
+
+    private void changed() {
+        lastChangeNanos = System.nanoTime();
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,119 @@
+package com.shop.product.catalog;
+
+import com.shop.product.config.PrimaryReads;
+import com.shop.product.model.Product;
+import com.shop.product.repository.ProductRepository;
+import com.shop.product.service.ProductQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional read path for catalog queries. Holds a copy-on-write {@link CatalogSnapshot} that is
+ * loaded from the repository on first use and then patched from committed writes, so list and
+ * lookup queries are answered without touching the database.
+ */
+@Component
+public class InMemoryCatalog implements CatalogChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryCatalog.class);
+
+    private final ProductRepository productRepository;
+    private final PrimaryReads primaryReads;
+    private final boolean enabled;
+    // Not a monitor: the first query loads the catalog from the database while holding it, which
+    // would pin the carrier thread of a virtual thread.
+    private final Lock writeLock = new ReentrantLock();
+
+    private volatile CatalogSnapshot snapshot;
+
+    public InMemoryCatalog(ProductRepository productRepository,
+                           PrimaryReads primaryReads,
+                           @Value("${app.catalog.in-memory.enabled:false}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.primaryReads = primaryReads;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<Product> query(ProductQuery query) {
+        return current().query(query);
+    }
+
+    public List<Product> select(long[] candidateIds, ProductQuery query) {
+        return current().select(candidateIds, query);
+    }
+
+    public Optional<Product> findById(long productId) {
+        return current().findById(productId);
+    }
+
+    @Override
+    public void onProductSaved(Product product) {
+        if (!enabled) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            if (snapshot != null) {
+                snapshot = snapshot.with(product);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Long productId) {
+        if (!enabled) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            if (snapshot != null) {
+                snapshot = snapshot.without(productId);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void onCatalogChanged() {
+        if (!enabled) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            snapshot = null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private CatalogSnapshot current() {
+        CatalogSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        writeLock.lock();
+        try {
+            if (snapshot == null) {
+                snapshot = CatalogSnapshot.of(primaryReads.call(productRepository::findAll));
+                log.info("Loaded in-memory catalog with {} products", snapshot.size());
+            }
+            return snapshot;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
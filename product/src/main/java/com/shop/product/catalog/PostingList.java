@@ -0,0 +1,131 @@
+package com.shop.product.catalog;
+
+import java.util.Arrays;
+
+/**
+ * Postings of a single term: ascending document ids with their term frequencies, stored as
+ * variable-length encoded (id delta, frequency) pairs in one byte array. Appending a larger id
+ * is O(1); any other change re-encodes the list.
+ */
+final class PostingList {
+
+    @FunctionalInterface
+    interface PostingConsumer {
+        void accept(long docId, int frequency);
+    }
+
+    private byte[] data = new byte[16];
+    private int length;
+    private int size;
+    private long lastDocId;
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void add(long docId, int frequency) {
+        if (size == 0 || docId > lastDocId) {
+            append(docId, frequency);
+            return;
+        }
+        long[] ids = new long[size + 1];
+        int[] frequencies = new int[size + 1];
+        int[] count = {0};
+        boolean[] inserted = {false};
+        forEach((id, tf) -> {
+            if (!inserted[0] && docId <= id) {
+                ids[count[0]] = docId;
+                frequencies[count[0]++] = frequency;
+                inserted[0] = true;
+                if (docId == id) {
+                    return;
+                }
+            }
+            ids[count[0]] = id;
+            frequencies[count[0]++] = tf;
+        });
+        rewrite(ids, frequencies, count[0]);
+    }
+
+    boolean remove(long docId) {
+        if (size == 0 || docId > lastDocId) {
+            return false;
+        }
+        long[] ids = new long[size];
+        int[] frequencies = new int[size];
+        int[] count = {0};
+        forEach((id, tf) -> {
+            if (id != docId) {
+                ids[count[0]] = id;
+                frequencies[count[0]++] = tf;
+            }
+        });
+        if (count[0] == size) {
+            return false;
+        }
+        rewrite(ids, frequencies, count[0]);
+        return true;
+    }
+
+    void forEach(PostingConsumer consumer) {
+        int offset = 0;
+        long docId = 0;
+        while (offset < length) {
+            long delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                delta |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            int frequency = 0;
+            shift = 0;
+            do {
+                b = data[offset++];
+                frequency |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            docId += delta;
+            consumer.accept(docId, frequency);
+        }
+    }
+
+    private void rewrite(long[] ids, int[] frequencies, int count) {
+        length = 0;
+        size = 0;
+        lastDocId = 0;
+        for (int i = 0; i < count; i++) {
+            append(ids[i], frequencies[i]);
+        }
+        if (data.length > 64 && length < data.length / 4) {
+            data = Arrays.copyOf(data, Math.max(16, length * 2));
+        }
+    }
+
+    private void append(long docId, int frequency) {
+        ensureCapacity(15);
+        writeVarLong(docId - lastDocId);
+        writeVarLong(frequency);
+        lastDocId = docId;
+        size++;
+    }
+
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.shop.product.catalog;
+
+import com.shop.product.model.Product;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized JSON of each product, plus a gzip variant, kept in direct (off-heap) slabs and keyed
+ * by id and version, so product responses can be written without object mapping. Fragments are
+ * appended to the current slab and never modified, which lets readers copy them out without
+ * locking; replaced fragments are reclaimed by copying the live ones into fresh slabs once more
+ * than half of the allocated memory is garbage. When {@code max-size} is reached and compaction
+ * cannot help, new fragments are served from the heap without being cached.
+ */
+@Component
+public class ProductJsonCache implements CatalogChangeListener, MeterBinder {
+
+    private final boolean enabled;
+    private final int slabSize;
+    private final long maxBytes;
+
+    private final Map<Long, Fragment> fragments = new ConcurrentHashMap<>();
+    private final Lock allocationLock = new ReentrantLock();
+    private ByteBuffer currentSlab;
+    private long allocatedBytes;
+    private long liveBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ProductJsonCache(@Value("${app.catalog.json-cache.enabled:false}") boolean enabled,
+                            @Value("${app.catalog.json-cache.slab-size:4MB}") DataSize slabSize,
+                            @Value("${app.catalog.json-cache.max-size:128MB}") DataSize maxSize) {
+        this.enabled = enabled;
+        this.slabSize = (int) Math.min(Integer.MAX_VALUE, slabSize.toBytes());
+        this.maxBytes = maxSize.toBytes();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The cached fragment for this exact product version, or null.
+     */
+    public Fragment find(long productId, long version) {
+        Fragment fragment = fragments.get(productId);
+        if (fragment != null && fragment.version == version) {
+            hits.incrementAndGet();
+            return fragment;
+        }
+        return null;
+    }
+
+    /**
+     * The fragment for the product's current version, serializing it with {@code serializer} on
+     * a miss.
+     */
+    public Fragment get(Product product, Function<Product, byte[]> serializer) {
+        long version = versionOf(product);
+        Fragment cached = find(product.getId(), version);
+        if (cached != null) {
+            return cached;
+        }
+        misses.incrementAndGet();
+        byte[] json = serializer.apply(product);
+        byte[] gzip = gzip(json);
+        if (!enabled) {
+            return Fragment.onHeap(version, json, gzip);
+        }
+        return store(product.getId(), version, json, gzip);
+    }
+
+    @Override
+    public void onProductSaved(Product product) {
+        evict(product.getId());
+    }
+
+    @Override
+    public void onProductDeleted(Long productId) {
+        evict(productId);
+    }
+
+    @Override
+    public void onCatalogChanged() {
+        allocationLock.lock();
+        try {
+            fragments.clear();
+            currentSlab = null;
+            allocatedBytes = 0;
+            liveBytes = 0;
+        } finally {
+            allocationLock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("catalog.json.cache.hits", hits, AtomicLong::get).register(registry);
+        FunctionCounter.builder("catalog.json.cache.misses", misses, AtomicLong::get).register(registry);
+        Gauge.builder("catalog.json.cache.size", fragments, Map::size).register(registry);
+        Gauge.builder("catalog.json.cache.offheap.bytes", this, cache -> cache.allocatedBytes)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private void evict(Long productId) {
+        allocationLock.lock();
+        try {
+            Fragment removed = fragments.remove(productId);
+            if (removed != null) {
+                liveBytes -= removed.size();
+            }
+        } finally {
+            allocationLock.unlock();
+        }
+    }
+
+    private Fragment store(long productId, long version, byte[] json, byte[] gzip) {
+        int size = json.length + gzip.length;
+        allocationLock.lock();
+        try {
+            Fragment current = fragments.get(productId);
+            if (current != null && current.version >= version) {
+                // A concurrent reader already stored this version, or a newer one.
+                return current.version == version ? current : Fragment.onHeap(version, json, gzip);
+            }
+            ByteBuffer slab = slabWithRoom(size);
+            if (slab == null) {
+                return Fragment.onHeap(version, json, gzip);
+            }
+            Fragment fragment = append(slab, version, json, gzip);
+            Fragment previous = fragments.put(productId, fragment);
+            liveBytes += size - (previous == null ? 0 : previous.size());
+            return fragment;
+        } finally {
+            allocationLock.unlock();
+        }
+    }
+
+    private ByteBuffer slabWithRoom(int size) {
+        if (size > slabSize) {
+            return null;
+        }
+        if (currentSlab != null && currentSlab.remaining() >= size) {
+            return currentSlab;
+        }
+        if (allocatedBytes + slabSize > maxBytes && liveBytes + size <= allocatedBytes / 2) {
+            compact();
+            if (currentSlab != null && currentSlab.remaining() >= size) {
+                return currentSlab;
+            }
+        }
+        if (allocatedBytes + slabSize > maxBytes) {
+            return null;
+        }
+        currentSlab = ByteBuffer.allocateDirect(slabSize);
+        allocatedBytes += slabSize;
+        return currentSlab;
+    }
+
+    // Runs under the allocation lock, so the map only changes here. Old slabs stay reachable (and
+    // valid) for readers that still hold fragments pointing into them.
+    private void compact() {
+        currentSlab = null;
+        allocatedBytes = 0;
+        for (Map.Entry<Long, Fragment> entry : fragments.entrySet()) {
+            Fragment live = entry.getValue();
+            if (currentSlab == null || currentSlab.remaining() < live.size()) {
+                currentSlab = ByteBuffer.allocateDirect(slabSize);
+                allocatedBytes += slabSize;
+            }
+            entry.setValue(live.copyTo(currentSlab));
+        }
+    }
+
+    private static Fragment append(ByteBuffer slab, long version, byte[] json, byte[] gzip) {
+        int offset = slab.position();
+        slab.put(json).put(gzip);
+        return new Fragment(version, slab, offset, json.length, gzip.length);
+    }
+
+    private static long versionOf(Product product) {
+        return product.getVersion() == null ? 0L : product.getVersion();
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 2 + 32);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * One product's JSON and gzip bytes: a region of a slab, or heap arrays when not cached.
+     */
+    public static final class Fragment {
+
+        private final long version;
+        private final ByteBuffer slab;
+        private final int offset;
+        private final int jsonLength;
+        private final int gzipLength;
+
+        private Fragment(long version, ByteBuffer slab, int offset, int jsonLength, int gzipLength) {
+            this.version = version;
+            this.slab = slab;
+            this.offset = offset;
+            this.jsonLength = jsonLength;
+            this.gzipLength = gzipLength;
+        }
+
+        static Fragment onHeap(long version, byte[] json, byte[] gzip) {
+            ByteBuffer buffer = ByteBuffer.allocate(json.length + gzip.length);
+            return append(buffer, version, json, gzip);
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public int length(boolean gzipped) {
+            return gzipped ? gzipLength : jsonLength;
+        }
+
+        public void writeTo(WritableByteChannel channel, boolean gzipped) throws IOException {
+            int start = gzipped ? offset + jsonLength : offset;
+            ByteBuffer view = slab.duplicate();
+            view.limit(start + length(gzipped)).position(start);
+            while (view.hasRemaining()) {
+                channel.write(view);
+            }
+        }
+
+        int size() {
+            return jsonLength + gzipLength;
+        }
+
+        Fragment copyTo(ByteBuffer target) {
+            ByteBuffer view = slab.duplicate();
+            view.limit(offset + size()).position(offset);
+            int targetOffset = target.position();
+            target.put(view);
+            return new Fragment(version, target, targetOffset, jsonLength, gzipLength);
+        }
+    }
+}
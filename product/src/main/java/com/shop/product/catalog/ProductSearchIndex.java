@@ -0,0 +1,297 @@
+package com.shop.product.catalog;
+
+import com.shop.product.config.PrimaryReads;
+import com.shop.product.model.Product;
+import com.shop.product.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over product name and description with BM25 ranking. Every query token must
+ * match (as a prefix) some indexed token of the product, mirroring the substring semantics of the
+ * SQL search closely enough while letting results be ranked. Updated incrementally from committed
+ * catalog writes and loaded from the repository on first use.
+ */
+@Component
+public class ProductSearchIndex implements CatalogChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final int NAME_WEIGHT = 2;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final ProductRepository productRepository;
+    private final PrimaryReads primaryReads;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final NavigableMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private long totalLength;
+    private volatile boolean loaded;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              PrimaryReads primaryReads,
+                              @Value("${app.catalog.search-index.enabled:false}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.primaryReads = primaryReads;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns true when the query contains at least one token the index can match; queries made
+     * only of separators have to fall back to plain substring search.
+     */
+    public static boolean isIndexable(String query) {
+        return query != null && !tokenize(query).isEmpty();
+    }
+
+    public SearchHits search(String query) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return SearchHits.EMPTY;
+        }
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return SearchHits.EMPTY;
+            }
+            int documentCount = documents.size();
+            double averageLength = (double) totalLength / documentCount;
+
+            Map<Long, Double> scores = null;
+            for (String token : toCounts(queryTokens).keySet()) {
+                Map<Long, Double> tokenScores = scoreToken(token, documentCount, averageLength);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    Map<Long, Double> merged = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        Double score = tokenScores.get(entry.getKey());
+                        if (score != null) {
+                            merged.put(entry.getKey(), entry.getValue() + score);
+                        }
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) {
+                    return SearchHits.EMPTY;
+                }
+            }
+            return SearchHits.of(scores);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductSaved(Product product) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            removeDocument(product.getId());
+            addDocument(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Long productId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onCatalogChanged() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> scoreToken(String token, int documentCount, double averageLength) {
+        Map<Long, Double> best = new HashMap<>();
+        for (Map.Entry<String, PostingList> entry : postings.tailMap(token, true).entrySet()) {
+            if (!entry.getKey().startsWith(token)) {
+                break;
+            }
+            PostingList list = entry.getValue();
+            double idf = Math.log(1 + (documentCount - list.size() + 0.5) / (list.size() + 0.5));
+            list.forEach((docId, frequency) -> {
+                double length = documents.get(docId).length;
+                double score = idf * frequency * (K1 + 1)
+                        / (frequency + K1 * (1 - B + B * length / averageLength));
+                best.merge(docId, score, Math::max);
+            });
+        }
+        return best;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                primaryReads.call(productRepository::findAll).forEach(this::addDocument);
+                loaded = true;
+                log.info("Built product search index: {} products, {} terms", documents.size(), postings.size());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addDocument(Product product) {
+        if (product.getId() == null) {
+            return;
+        }
+        Map<String, Integer> frequencies = new HashMap<>();
+        toCounts(tokenize(product.getName())).forEach((term, count) -> frequencies.merge(term, count * NAME_WEIGHT, Integer::sum));
+        toCounts(tokenize(product.getDescription())).forEach((term, count) -> frequencies.merge(term, count, Integer::sum));
+
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), key -> new PostingList()).add(product.getId(), entry.getValue());
+            length += entry.getValue();
+        }
+        documents.put(product.getId(), new Document(Math.max(length, 1), frequencies.keySet().toArray(String[]::new)));
+        totalLength += Math.max(length, 1);
+    }
+
+    private void removeDocument(Long productId) {
+        Document document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+        totalLength -= document.length;
+        for (String term : document.terms) {
+            PostingList list = postings.get(term);
+            if (list != null && list.remove(productId) && list.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean tokenChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static Map<String, Integer> toCounts(List<String> tokens) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        tokens.forEach(token -> counts.merge(token, 1, Integer::sum));
+        return counts;
+    }
+
+    private record Document(int length, String[] terms) {
+    }
+
+    /**
+     * Matching product ids ordered by descending relevance.
+     */
+    public static final class SearchHits {
+
+        static final SearchHits EMPTY = new SearchHits(new long[0]);
+
+        private final long[] ids;
+
+        private SearchHits(long[] ids) {
+            this.ids = ids;
+        }
+
+        static SearchHits of(Map<Long, Double> scores) {
+            List<Map.Entry<Long, Double>> entries = new ArrayList<>(scores.entrySet());
+            entries.sort(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+            long[] ids = new long[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                ids[i] = entries.get(i).getKey();
+            }
+            return new SearchHits(ids);
+        }
+
+        public boolean isEmpty() {
+            return ids.length == 0;
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        public long[] ids() {
+            return Arrays.copyOf(ids, ids.length);
+        }
+
+        public List<Long> idList() {
+            return Arrays.stream(ids).boxed().toList();
+        }
+
+        public Map<Long, Integer> ranks() {
+            Map<Long, Integer> ranks = new HashMap<>(ids.length * 2);
+            for (int i = 0; i < ids.length; i++) {
+                ranks.put(ids[i], i);
+            }
+            return ranks;
+        }
+    }
+}
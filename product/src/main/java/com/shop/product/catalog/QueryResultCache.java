@@ -0,0 +1,140 @@
+package com.shop.product.catalog;
+
+import com.shop.product.model.Product;
+import com.shop.product.service.ProductQuery;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache of list query results, keyed by the normalized {@link ProductQuery}. Only the
+ * matching ids are kept; they are resolved back to products on a hit. Every entry remembers the
+ * {@link CatalogVersion} it was computed at and is ignored once any write has bumped the version.
+ * The TTL bounds staleness from writes made by other instances, which this process does not see.
+ * <p>
+ * Misses run on the caller's read-only path, so they are served by a replica when one is
+ * configured. A replica may not have applied a write yet, so results loaded within
+ * {@code replica-lag} of this instance's last write are returned but not cached.
+ */
+@Component
+public class QueryResultCache implements MeterBinder {
+
+    private final CatalogVersion catalogVersion;
+    private final int maxEntries;
+    private final int maxResultSize;
+    private final long ttlNanos;
+    private final long replicaLagNanos;
+
+    private final Map<ProductQuery, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public QueryResultCache(CatalogVersion catalogVersion,
+                            @Value("${app.catalog.query-cache.max-entries:500}") int maxEntries,
+                            @Value("${app.catalog.query-cache.max-result-size:10000}") int maxResultSize,
+                            @Value("${app.catalog.query-cache.ttl:60s}") Duration ttl,
+                            @Value("${app.datasource.replicas.max-lag:5s}") Duration replicaLag) {
+        this.catalogVersion = catalogVersion;
+        this.maxEntries = maxEntries;
+        this.maxResultSize = maxResultSize;
+        this.ttlNanos = ttl.toNanos();
+        this.replicaLagNanos = replicaLag.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ProductQuery, Entry> eldest) {
+                if (size() > QueryResultCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached result for the query, resolving the stored ids with {@code resolver}, or
+     * runs {@code loader} and caches the ids of what it returned.
+     */
+    public List<Product> getOrLoad(ProductQuery query,
+                                   Function<ProductQuery, List<Product>> loader,
+                                   Function<List<Long>, List<Product>> resolver) {
+        if (maxEntries <= 0) {
+            return loader.apply(query);
+        }
+        ProductQuery key = keyOf(query);
+        // Read before loading: a write that commits while the query runs leaves the entry outdated.
+        long version = catalogVersion.current();
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+            if (cached != null && !cached.isValid(version, System.nanoTime())) {
+                entries.remove(key);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+            return resolver.apply(Arrays.stream(cached.ids).boxed().toList());
+        }
+
+        misses.incrementAndGet();
+        List<Product> products = loader.apply(query);
+        // Only ids computed entirely between two writes, from a replica that had time to catch up, are kept.
+        boolean settled = catalogVersion.current() == version
+                && System.nanoTime() - catalogVersion.lastChangeNanos() >= replicaLagNanos;
+        if (settled && products.size() <= maxResultSize) {
+            long[] ids = products.stream().mapToLong(Product::getId).toArray();
+            synchronized (entries) {
+                entries.put(key, new Entry(version, System.nanoTime() + ttlNanos, ids));
+            }
+        }
+        return products;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("catalog.query.cache.hits", hits, AtomicLong::get).register(registry);
+        FunctionCounter.builder("catalog.query.cache.misses", misses, AtomicLong::get).register(registry);
+        FunctionCounter.builder("catalog.query.cache.evictions", evictions, AtomicLong::get).register(registry);
+        Gauge.builder("catalog.query.cache.size", this, QueryResultCache::size).register(registry);
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    // Searches are case-insensitive on every path, so "Phone" and "phone" share an entry.
+    private static ProductQuery keyOf(ProductQuery query) {
+        if (query.search() == null) {
+            return query;
+        }
+        return new ProductQuery(
+                query.minPrice(),
+                query.maxPrice(),
+                query.search().toLowerCase(Locale.ROOT),
+                query.sortField(),
+                query.sortDirection()
+        );
+    }
+
+    private record Entry(long version, long expiresAt, long[] ids) {
+        boolean isValid(long currentVersion, long now) {
+            return version == currentVersion && now - expiresAt < 0;
+        }
+    }
+}
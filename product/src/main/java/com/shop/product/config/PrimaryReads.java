@@ -0,0 +1,43 @@
+package com.shop.product.config;
+
+import com.shop.common.config.DataSourceConfig;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs the reads that fill long-lived caches against the primary. Inside a read-only transaction
+ * they would go to a replica (see {@link DataSourceConfig}), which may not have applied the write
+ * that just invalidated the cache yet; a cache rebuilt from it keeps missing that write until the
+ * next change.
+ */
+@Component
+public class PrimaryReads {
+
+    private final TransactionTemplate transactionTemplate;
+
+    public PrimaryReads(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public <T> T call(Supplier<T> read) {
+        // A read-write transaction is already on the primary; no need for a second connection.
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return read.get();
+        }
+        return transactionTemplate.execute(status -> read.get());
+    }
+
+    public void run(Runnable read) {
+        call(() -> {
+            read.run();
+            return null;
+        });
+    }
+}
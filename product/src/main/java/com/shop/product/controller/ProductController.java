@@ -1,6 +1,8 @@
 package com.shop.product.controller;
 
+import com.shop.product.controller.api.ProductApiController;
 import com.shop.product.model.Product;
+import com.shop.product.service.ProductPage;
 import com.shop.product.service.ProductService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,6 +17,8 @@ import java.util.List;
 @RequestMapping("/products")
 public class ProductController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
     private final ProductService productService;
 
     public ProductController(ProductService productService) {
@@ -26,9 +30,24 @@ public class ProductController {
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) String sort
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal
     ) {
-        List<Product> products = productService.getProducts(minPrice, maxPrice, search, "price", sort);
-        return ResponseEntity.ok(products);
+        if (limit == null && cursor == null) {
+            List<Product> products = productService.getProducts(minPrice, maxPrice, search, "price", sort);
+            return ResponseEntity.ok(products);
+        }
+
+        ProductPage page;
+        try {
+            page = productService.getProductPage(minPrice, maxPrice, search, "price", sort,
+                    limit == null ? DEFAULT_PAGE_SIZE : limit, cursor, includeTotal, null);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ProductApiController.pageResponse(page).body(page.items());
     }
 }
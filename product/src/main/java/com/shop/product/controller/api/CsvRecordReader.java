@@ -0,0 +1,82 @@
+package com.shop.product.controller.api;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 reader: comma separated, fields optionally quoted with {@code "},
+ * {@code ""} escapes a quote inside a quoted field, and quoted fields may span lines. A quote
+ * anywhere but at the start of a field is kept as a literal character.
+ */
+class CsvRecordReader {
+
+    private final BufferedReader reader;
+    private long linesRead;
+    private long recordLine;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    /**
+     * The 1-based physical line on which the record last returned by {@link #next()} starts.
+     */
+    long line() {
+        return recordLine;
+    }
+
+    /**
+     * Returns the fields of the next record, or null at end of input.
+     */
+    List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStart = true;
+        boolean consumed = false;
+        recordLine = linesRead + 1;
+        int c;
+        while ((c = reader.read()) != -1) {
+            consumed = true;
+            if (c == '\n') {
+                linesRead++;
+            }
+            if (quoted) {
+                if (c != '"') {
+                    field.append((char) c);
+                    continue;
+                }
+                reader.mark(1);
+                int following = reader.read();
+                if (following == '"') {
+                    field.append('"');
+                } else {
+                    quoted = false;
+                    if (following != -1) {
+                        reader.reset();
+                    }
+                }
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+                continue;
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            fieldStart = false;
+        }
+        if (!consumed) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -1,6 +1,15 @@
 package com.shop.product.controller.api;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.shop.product.catalog.CatalogVersion;
+import com.shop.product.catalog.ProductJsonCache;
+import com.shop.product.catalog.ProductJsonCache.Fragment;
 import com.shop.product.model.Product;
+import com.shop.product.model.ProductPatch;
+import com.shop.product.service.ProductFacets;
+import com.shop.product.service.ProductPage;
 import com.shop.product.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,19 +19,28 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/products")
@@ -30,28 +48,121 @@ import java.util.Objects;
 @Tag(name = "Products", description = "Operations for managing catalog products")
 public class ProductApiController {
 
-    private final ProductService productService;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String APPROXIMATE_TOTAL_HEADER = "X-Approximate-Total-Count";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_BATCH_SIZE = 200;
+    private static final String FIELDS_DESCRIPTION = "Comma-separated fields to return (id, name, category, price, "
+            + "description, imageUrl); the id is always included. Omit for the full representation";
 
-    public ProductApiController(ProductService productService) {
+    private final ProductService productService;
+    private final CatalogVersion catalogVersion;
+    private final ProductJsonCache productJsonCache;
+    private final ObjectWriter responseWriter;
+
+    public ProductApiController(ProductService productService,
+                                CatalogVersion catalogVersion,
+                                ProductJsonCache productJsonCache,
+                                ObjectMapper objectMapper) {
         this.productService = productService;
+        this.catalogVersion = catalogVersion;
+        this.productJsonCache = productJsonCache;
+        this.responseWriter = objectMapper.writerFor(ProductResponse.class);
     }
 
     @GetMapping
     @Operation(
             summary = "Get all products",
-            description = "Returns all products with optional filters for price range, keyword search, and sorting.",
+            description = "Returns all products with optional filters for price range, keyword search, and sorting. "
+                    + "When limit or cursor is given the result is keyset-paged: the next page cursor is returned in the "
+                    + NEXT_CURSOR_HEADER + " header (absent on the last page). The ETag changes with every catalog write.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "List of products returned"),
+                    @ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag in If-None-Match"),
+                    @ApiResponse(responseCode = "400", description = "Cursor is malformed or does not match the requested sort")
+            }
+    )
+    // One read-only transaction, so the ETag's revision and the products come from the same snapshot.
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getProducts(
+            @Parameter(description = "Lower price bound (inclusive)") @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Upper price bound (inclusive)") @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Search query applied to name or description") @RequestParam(required = false) String search,
+            @Parameter(description = "Field to sort by. Allowed values: id, name, price, category, relevance (with search; most relevant first unless sortDirection is asc)") @RequestParam(required = false) String sortField,
+            @Parameter(description = "Sort direction: asc or desc") @RequestParam(required = false) String sortDirection,
+            @Parameter(description = "Page size (1-200); enables keyset paging") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Opaque cursor from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Return the approximate total in the " + APPROXIMATE_TOTAL_HEADER + " header")
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @Parameter(description = FIELDS_DESCRIPTION) @RequestParam(required = false) String fields,
+            WebRequest webRequest
+    ) {
+        Set<String> fieldSet;
+        try {
+            fieldSet = parseFields(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String etag = catalogVersion.catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        if (limit == null && cursor == null) {
+            List<Product> products = productService.getProducts(minPrice, maxPrice, search, sortField, sortDirection, fieldSet);
+            return ResponseEntity.ok().eTag(etag).body(toListBody(products, fieldSet));
+        }
+
+        ProductPage page;
+        try {
+            page = productService.getProductPage(minPrice, maxPrice, search, sortField, sortDirection,
+                    limit == null ? DEFAULT_PAGE_SIZE : limit, cursor, includeTotal, fieldSet);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return pageResponse(page).eTag(etag).body(toListBody(page.items(), fieldSet));
+    }
+
+    @GetMapping("/facets")
+    @Operation(
+            summary = "Get catalog facets",
+            description = "Product counts per category and a fixed-bucket price histogram for the same filter as GET /api/products.",
             responses = {
-                    @ApiResponse(responseCode = "200", description = "List of products returned")
+                    @ApiResponse(responseCode = "200", description = "Facets calculated"),
+                    @ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag in If-None-Match")
             }
     )
-    public ResponseEntity<List<ProductResponse>> getProducts(
+    @Transactional(readOnly = true)
+    public ResponseEntity<ProductFacets> getFacets(
             @Parameter(description = "Lower price bound (inclusive)") @RequestParam(required = false) BigDecimal minPrice,
             @Parameter(description = "Upper price bound (inclusive)") @RequestParam(required = false) BigDecimal maxPrice,
             @Parameter(description = "Search query applied to name or description") @RequestParam(required = false) String search,
-            @Parameter(description = "Field to sort by. Allowed values: id, name, price, category") @RequestParam(required = false) String sortField,
-            @Parameter(description = "Sort direction: asc or desc") @RequestParam(required = false) String sortDirection
+            WebRequest webRequest
+    ) {
+        String etag = catalogVersion.catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(productService.getFacets(minPrice, maxPrice, search));
+    }
+
+    @GetMapping("/batch")
+    @Operation(
+            summary = "Get products by ids",
+            description = "Resolves up to " + MAX_BATCH_SIZE + " products in one call. Unknown ids are omitted from the result.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Found products, in the order of the requested ids"),
+                    @ApiResponse(responseCode = "400", description = "No ids or too many ids requested")
+            }
+    )
+    public ResponseEntity<List<ProductResponse>> getProductsByIds(
+            @Parameter(description = "Comma-separated product ids") @RequestParam List<Long> ids
     ) {
-        List<Product> products = productService.getProducts(minPrice, maxPrice, search, sortField, sortDirection);
+        if (ids.isEmpty() || ids.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Product> products = productService.getProductsByIds(ids);
         return ResponseEntity.ok(products.stream().map(ProductResponse::fromEntity).toList());
     }
 
@@ -60,13 +171,49 @@ public class ProductApiController {
             summary = "Get product by id",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Product found"),
+                    @ApiResponse(responseCode = "304", description = "Product unchanged since the ETag in If-None-Match"),
                     @ApiResponse(responseCode = "404", description = "Product not found")
             }
     )
-    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
-        return productService.getProductById(id)
-                .map(ProductResponse::fromEntity)
-                .map(ResponseEntity::ok)
+    @Transactional(readOnly = true)
+    public ResponseEntity<Object> getProductById(
+            @PathVariable Long id,
+            @Parameter(description = FIELDS_DESCRIPTION) @RequestParam(required = false) String fields,
+            WebRequest webRequest
+    ) {
+        Set<String> fieldSet;
+        try {
+            fieldSet = parseFields(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // The stored version answers conditional requests without loading the product.
+        Long version = productService.getProductVersion(id).orElse(null);
+        if (version == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        String versionEtag = CatalogVersion.productEtag(id, version);
+        if (webRequest.checkNotModified(versionEtag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(versionEtag).build();
+        }
+
+        boolean fromFragments = fieldSet == null && productJsonCache.isEnabled();
+        if (fromFragments) {
+            Fragment cached = productJsonCache.find(id, version);
+            if (cached != null) {
+                return fragmentResponse(versionEtag, cached, webRequest);
+            }
+        }
+
+        return productService.getProductById(id, fieldSet)
+                .map(product -> {
+                    String etag = CatalogVersion.productEtag(product);
+                    if (fromFragments) {
+                        return fragmentResponse(etag, productJsonCache.get(product, this::serialize), webRequest);
+                    }
+                    return ResponseEntity.ok().eTag(etag).body(toBody(product, fieldSet));
+                })
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
@@ -109,7 +256,7 @@ public class ProductApiController {
     @PatchMapping("/{id}")
     @Operation(
             summary = "Partially update product",
-            description = "Applies partial modifications to selected product fields.",
+            description = "Applies partial modifications to selected product fields. Only the supplied fields are written.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Product updated"),
                     @ApiResponse(responseCode = "400", description = "Request body is empty or invalid"),
@@ -123,23 +270,7 @@ public class ProductApiController {
             return ResponseEntity.badRequest().build();
         }
 
-        return productService.applyPartialUpdate(id, product -> {
-                    if (request.getName() != null) {
-                        product.setName(request.getName());
-                    }
-                    if (request.getCategory() != null) {
-                        product.setCategory(request.getCategory());
-                    }
-                    if (request.getPrice() != null) {
-                        product.setPrice(request.getPrice());
-                    }
-                    if (request.getDescription() != null) {
-                        product.setDescription(request.getDescription());
-                    }
-                    if (request.getImageUrl() != null) {
-                        product.setImageUrl(request.getImageUrl());
-                    }
-                })
+        return productService.applyPartialUpdate(id, request.toPatch())
                 .map(ProductResponse::fromEntity)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
@@ -162,6 +293,89 @@ public class ProductApiController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Parses a comma-separated {@code fields} parameter; null or blank means the full representation.
+     */
+    static Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> parsed = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!ProductService.SELECTABLE_FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            parsed.add(name);
+        }
+        return parsed.isEmpty() ? null : parsed;
+    }
+
+    private static Object toBody(Product product, Set<String> fields) {
+        return fields == null ? ProductResponse.fromEntity(product) : ProductResponse.sparse(product, fields);
+    }
+
+    private Object toListBody(List<Product> products, Set<String> fields) {
+        if (fields == null && productJsonCache.isEnabled()) {
+            return ProductJsonBody.array(products.stream()
+                    .map(product -> productJsonCache.get(product, this::serialize))
+                    .toList());
+        }
+        return products.stream().map(product -> toBody(product, fields)).toList();
+    }
+
+    private ResponseEntity<Object> fragmentResponse(String etag, Fragment fragment, WebRequest webRequest) {
+        boolean gzipped = acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().eTag(etag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzipped) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(ProductJsonBody.single(fragment, gzipped));
+    }
+
+    private byte[] serialize(Product product) {
+        try {
+            return responseWriter.writeValueAsBytes(ProductResponse.fromEntity(product));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().replace(" ", "");
+                if (parameter.matches("q=0(\\.0{0,3})?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // Also used by the legacy /products endpoint, so both send the same paging headers.
+    public static ResponseEntity.BodyBuilder pageResponse(ProductPage page) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        if (page.approximateTotal() != null) {
+            builder.header(APPROXIMATE_TOTAL_HEADER, page.approximateTotal().toString());
+        }
+        return builder;
+    }
+
     @Schema(name = "ProductRequest", description = "Payload for creating or replacing a product")
     public static class ProductRequest {
 
@@ -175,6 +389,7 @@ public class ProductApiController {
 
         @NotNull
         @DecimalMin(value = "0.0", inclusive = false)
+        @Digits(integer = 10, fraction = 2)
         private BigDecimal price;
 
         @Size(max = 500)
@@ -223,7 +438,7 @@ public class ProductApiController {
             this.imageUrl = imageUrl;
         }
 
-        private Product toProduct() {
+        Product toProduct() {
             Product product = new Product();
             product.setName(name);
             product.setCategory(category);
@@ -243,6 +458,7 @@ public class ProductApiController {
         private String category;
 
         @DecimalMin(value = "0.0", inclusive = false)
+        @Digits(integer = 10, fraction = 2)
         private BigDecimal price;
 
         @Size(max = 500)
@@ -294,6 +510,10 @@ public class ProductApiController {
         public boolean hasUpdates() {
             return name != null || category != null || price != null || description != null || imageUrl != null;
         }
+
+        ProductPatch toPatch() {
+            return new ProductPatch(name, category, price, description, imageUrl);
+        }
     }
 
     @Schema(name = "ProductResponse", description = "Product representation returned by the API")
@@ -338,6 +558,31 @@ public class ProductApiController {
             return imageUrl;
         }
 
+        /**
+         * Only the requested fields, plus the id, in the order of the full representation.
+         */
+        static Map<String, Object> sparse(Product product, Set<String> fields) {
+            Objects.requireNonNull(product, "product must not be null");
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("id", product.getId());
+            if (fields.contains("name")) {
+                body.put("name", product.getName());
+            }
+            if (fields.contains("category")) {
+                body.put("category", product.getCategory());
+            }
+            if (fields.contains("price")) {
+                body.put("price", product.getPrice());
+            }
+            if (fields.contains("description")) {
+                body.put("description", product.getDescription());
+            }
+            if (fields.contains("imageUrl")) {
+                body.put("imageUrl", product.getImageUrl());
+            }
+            return body;
+        }
+
         static ProductResponse fromEntity(Product product) {
             Objects.requireNonNull(product, "product must not be null");
             return new ProductResponse(
@@ -0,0 +1,119 @@
+package com.shop.product.controller.api;
+
+import com.shop.product.service.ProductBulkService;
+import com.shop.product.service.ProductBulkService.BulkReport;
+import com.shop.product.service.ProductBulkService.BulkUpdate;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Size;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/products")
+@Tag(name = "Products", description = "Operations for managing catalog products")
+public class ProductBulkController {
+
+    private static final int MAX_BULK_SIZE = 10_000;
+
+    private final ProductBulkService productBulkService;
+
+    public ProductBulkController(ProductBulkService productBulkService) {
+        this.productBulkService = productBulkService;
+    }
+
+    @PostMapping("/bulk")
+    @Operation(
+            summary = "Bulk update or delete products",
+            description = "Sets price and/or category on the listed products and deletes the listed ids, up to "
+                    + MAX_BULK_SIZE + " entries in total, in one transaction. Every entry is reported as UPDATED, "
+                    + "UNCHANGED, DELETED, NOT_FOUND or INVALID.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Changes applied; see the per-id results"),
+                    @ApiResponse(responseCode = "400", description = "Validation failed, nothing to do, or too many entries")
+            }
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkReport> bulkUpdate(@Valid @RequestBody BulkRequest request) {
+        List<BulkUpdateItem> updates = request.getUpdates() == null ? List.of() : request.getUpdates();
+        List<Long> deletes = request.getDeletes() == null ? List.of() : request.getDeletes();
+        int size = updates.size() + deletes.size();
+        if (size == 0 || size > MAX_BULK_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<BulkUpdate> changes = updates.stream()
+                .map(item -> new BulkUpdate(item.getId(), item.getPrice(), item.getCategory()))
+                .toList();
+        return ResponseEntity.ok(productBulkService.apply(changes, deletes));
+    }
+
+    public static class BulkRequest {
+        @Valid
+        private List<BulkUpdateItem> updates;
+
+        private List<Long> deletes;
+
+        public List<BulkUpdateItem> getUpdates() {
+            return updates;
+        }
+
+        public void setUpdates(List<BulkUpdateItem> updates) {
+            this.updates = updates;
+        }
+
+        public List<Long> getDeletes() {
+            return deletes;
+        }
+
+        public void setDeletes(List<Long> deletes) {
+            this.deletes = deletes;
+        }
+    }
+
+    public static class BulkUpdateItem {
+        private Long id;
+
+        @DecimalMin(value = "0.0", inclusive = false)
+        @Digits(integer = 10, fraction = 2)
+        private BigDecimal price;
+
+        @Size(max = 100)
+        private String category;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public void setPrice(BigDecimal price) {
+            this.price = price;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public void setCategory(String category) {
+            this.category = category;
+        }
+    }
+}
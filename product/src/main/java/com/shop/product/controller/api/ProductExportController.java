@@ -0,0 +1,75 @@
+package com.shop.product.controller.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shop.product.controller.api.ProductApiController.ProductResponse;
+import com.shop.product.service.ProductService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+@RestController
+@RequestMapping("/api/products")
+@Tag(name = "Products", description = "Operations for managing catalog products")
+public class ProductExportController {
+
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ProductService productService;
+    private final ObjectWriter productWriter;
+    private final ObjectMapper objectMapper;
+    private final Duration exportTimeout;
+
+    public ProductExportController(ProductService productService, ObjectMapper objectMapper,
+                                   @Value("${app.catalog.export.timeout:10m}") Duration exportTimeout) {
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.exportTimeout = exportTimeout;
+        this.productWriter = objectMapper.writerFor(ProductResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @Operation(
+            summary = "Export catalog",
+            description = "Streams every product as newline-delimited JSON, ordered by id, using the same shape as GET /api/products.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Catalog stream")
+            }
+    )
+    public WebAsyncTask<Void> exportProducts(HttpServletResponse response) {
+        // Exports run well past the container's async timeout, so the stream carries its own
+        // instead of raising the default for every async request.
+        Callable<Void> export = () -> {
+            response.setContentType(NDJSON.toString());
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                productService.exportProducts(product -> {
+                    try {
+                        productWriter.writeValue(generator, ProductResponse.fromEntity(product));
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            return null;
+        };
+        return new WebAsyncTask<>(exportTimeout.toMillis(), export);
+    }
+}
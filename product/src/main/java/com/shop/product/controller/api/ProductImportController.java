@@ -0,0 +1,199 @@
+package com.shop.product.controller.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.shop.product.controller.api.ProductApiController.ProductRequest;
+import com.shop.product.service.ProductImportService;
+import com.shop.product.service.ProductImportService.ImportReport;
+import com.shop.product.service.ProductImportService.ImportRow;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Validator;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+@RestController
+@RequestMapping("/api/products")
+@Tag(name = "Products", description = "Operations for managing catalog products")
+public class ProductImportController {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private final ProductImportService productImportService;
+    private final ObjectReader productRequestReader;
+    private final Validator validator;
+
+    public ProductImportController(ProductImportService productImportService,
+                                   ObjectMapper objectMapper,
+                                   Validator validator) {
+        this.productImportService = productImportService;
+        this.productRequestReader = objectMapper.readerFor(ProductRequest.class);
+        this.validator = validator;
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    @Operation(
+            summary = "Bulk import products",
+            description = "Streams products from NDJSON, a JSON array, or CSV with a header row "
+                    + "(name, category, price, description, imageUrl). Rows are validated like POST /api/products "
+                    + "and inserted in batches; invalid rows are skipped and reported by their 1-based line "
+                    + "(for CSV, the line the record starts on). Each batch commits on its own: if the import "
+                    + "fails midway, the batches before the failure stay imported.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Import finished; see the report for per-row errors")
+            }
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportReport> importProducts(HttpServletRequest request) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        InputStream body = request.getInputStream();
+        Iterator<ImportRow> rows = TEXT_CSV.includes(contentType) ? csvRows(body) : jsonRows(body);
+        return ResponseEntity.ok(productImportService.importProducts(rows));
+    }
+
+    private Iterator<ImportRow> jsonRows(InputStream body) throws IOException {
+        MappingIterator<ProductRequest> values = productRequestReader.readValues(body);
+        return new RowIterator() {
+            private long line;
+            private boolean stopped;
+
+            @Override
+            ImportRow readNext() throws IOException {
+                if (stopped) {
+                    return null;
+                }
+                try {
+                    if (!values.hasNextValue()) {
+                        return null;
+                    }
+                    line++;
+                    return toRow(line, values.nextValue());
+                } catch (JsonMappingException e) {
+                    // The iterator resynchronizes to the next record after a mapping failure.
+                    return ImportRow.invalid(line, List.of(e.getOriginalMessage()));
+                } catch (JsonProcessingException e) {
+                    stopped = true;
+                    return ImportRow.invalid(line + 1, List.of("Malformed JSON, import stopped: " + e.getOriginalMessage()));
+                }
+            }
+        };
+    }
+
+    private Iterator<ImportRow> csvRows(InputStream body) throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        List<String> header = reader.next();
+        Map<String, Integer> columns = new HashMap<>();
+        if (header != null) {
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+            }
+        }
+
+        return new RowIterator() {
+            @Override
+            ImportRow readNext() throws IOException {
+                if (header == null) {
+                    return null;
+                }
+                List<String> fields;
+                do {
+                    fields = reader.next();
+                } while (fields != null && fields.size() == 1 && fields.get(0).isBlank());
+                if (fields == null) {
+                    return null;
+                }
+                long line = reader.line();
+
+                ProductRequest request = new ProductRequest();
+                request.setName(column(fields, columns, "name"));
+                request.setCategory(column(fields, columns, "category"));
+                request.setDescription(column(fields, columns, "description"));
+                request.setImageUrl(column(fields, columns, "imageurl"));
+                String price = column(fields, columns, "price");
+                if (price != null) {
+                    try {
+                        request.setPrice(new BigDecimal(price.trim()));
+                    } catch (NumberFormatException e) {
+                        return ImportRow.invalid(line, List.of("price: not a number"));
+                    }
+                }
+                return toRow(line, request);
+            }
+        };
+    }
+
+    private static String column(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    private ImportRow toRow(long line, ProductRequest request) {
+        if (request == null) {
+            return ImportRow.invalid(line, List.of("Empty record"));
+        }
+        var violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return ImportRow.invalid(line, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .toList());
+        }
+        return ImportRow.valid(line, request.toProduct());
+    }
+
+    private abstract static class RowIterator implements Iterator<ImportRow> {
+        private ImportRow next;
+        private boolean done;
+
+        abstract ImportRow readNext() throws IOException;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                try {
+                    next = readNext();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                done = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public ImportRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ImportRow row = next;
+            next = null;
+            return row;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.shop.product.controller.api;
+
+import com.shop.product.catalog.ProductJsonCache.Fragment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Response body assembled from pre-serialized product fragments: one product (optionally the
+ * gzip variant) or a JSON array of products. Written by {@link ProductJsonBodyConverter}.
+ */
+final class ProductJsonBody {
+
+    private static final byte[] OPEN = {'['};
+    private static final byte[] SEPARATOR = {','};
+    private static final byte[] CLOSE = {']'};
+
+    private final List<Fragment> fragments;
+    private final boolean array;
+    private final boolean gzipped;
+
+    private ProductJsonBody(List<Fragment> fragments, boolean array, boolean gzipped) {
+        this.fragments = fragments;
+        this.array = array;
+        this.gzipped = gzipped;
+    }
+
+    static ProductJsonBody single(Fragment fragment, boolean gzipped) {
+        return new ProductJsonBody(List.of(fragment), false, gzipped);
+    }
+
+    static ProductJsonBody array(List<Fragment> fragments) {
+        return new ProductJsonBody(fragments, true, false);
+    }
+
+    long contentLength() {
+        long length = array ? 2 + Math.max(0, fragments.size() - 1) : 0;
+        for (Fragment fragment : fragments) {
+            length += fragment.length(gzipped);
+        }
+        return length;
+    }
+
+    void writeTo(WritableByteChannel channel) throws IOException {
+        if (!array) {
+            fragments.get(0).writeTo(channel, gzipped);
+            return;
+        }
+        write(channel, OPEN);
+        for (int i = 0; i < fragments.size(); i++) {
+            if (i > 0) {
+                write(channel, SEPARATOR);
+            }
+            fragments.get(i).writeTo(channel, false);
+        }
+        write(channel, CLOSE);
+    }
+
+    private static void write(WritableByteChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
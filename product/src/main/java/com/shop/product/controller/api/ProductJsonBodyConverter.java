@@ -0,0 +1,48 @@
+package com.shop.product.controller.api;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+/**
+ * Copies {@link ProductJsonBody} fragments to the response as they are, with an exact
+ * Content-Length. Registered ahead of the Jackson converter by Spring Boot.
+ */
+@Component
+public class ProductJsonBodyConverter extends AbstractHttpMessageConverter<ProductJsonBody> {
+
+    public ProductJsonBodyConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ProductJsonBody.class == clazz;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ProductJsonBody readInternal(Class<? extends ProductJsonBody> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Product fragments are write-only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(ProductJsonBody body, MediaType contentType) {
+        return body.contentLength();
+    }
+
+    @Override
+    protected void writeInternal(ProductJsonBody body, HttpOutputMessage outputMessage) throws IOException {
+        body.writeTo(Channels.newChannel(outputMessage.getBody()));
+    }
+}
@@ -0,0 +1,170 @@
+package com.shop.product.messaging;
+
+import com.shop.product.catalog.CatalogChangeListener;
+import com.shop.product.model.Product;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Publishes committed catalog writes to the product changes fanout exchange so other services can
+ * invalidate cached product data. Changes are buffered and sent once per coalescing window: a
+ * burst of writes to one product becomes a single event with the latest version and the union of
+ * the changed fields, and a delete supersedes any pending update.
+ */
+@Component
+public class ProductChangeMessagePublisher implements CatalogChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeMessagePublisher.class);
+
+    private static final Set<String> ALL_FIELDS = Set.of("name", "category", "price", "description", "imageUrl");
+
+    private final RabbitTemplate rabbitTemplate;
+    private final String exchange;
+    private final boolean enabled;
+
+    private Map<Long, PendingChange> pending = new LinkedHashMap<>();
+    private boolean catalogInvalidated;
+
+    public ProductChangeMessagePublisher(RabbitTemplate rabbitTemplate,
+                                         @Value("${app.messaging.exchanges.product-changes}") String exchange,
+                                         @Value("${app.messaging.product-changes.enabled:true}") boolean enabled) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.exchange = exchange;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void onProductSaved(Product product) {
+        onProductSaved(product, ALL_FIELDS);
+    }
+
+    @Override
+    public synchronized void onProductSaved(Product product, Set<String> changedFields) {
+        if (!enabled || changedFields.isEmpty()) {
+            return;
+        }
+        PendingChange change = pending.computeIfAbsent(product.getId(), id -> new PendingChange());
+        if (change.version == null || (product.getVersion() != null && product.getVersion() > change.version)) {
+            change.version = product.getVersion();
+        }
+        change.fields.addAll(changedFields);
+        change.deleted = false;
+    }
+
+    @Override
+    public synchronized void onProductDeleted(Long productId) {
+        if (!enabled) {
+            return;
+        }
+        PendingChange change = pending.computeIfAbsent(productId, id -> new PendingChange());
+        change.fields.clear();
+        change.deleted = true;
+    }
+
+    @Override
+    public synchronized void onCatalogChanged() {
+        if (!enabled) {
+            return;
+        }
+        // A catalog-wide event tells consumers to drop everything, which covers any pending change.
+        pending.clear();
+        catalogInvalidated = true;
+    }
+
+    @Scheduled(fixedDelayString = "${app.messaging.product-changes.coalesce-window-ms:500}")
+    public void flush() {
+        Map<Long, PendingChange> batch;
+        boolean invalidated;
+        synchronized (this) {
+            if (pending.isEmpty() && !catalogInvalidated) {
+                return;
+            }
+            batch = pending;
+            invalidated = catalogInvalidated;
+            pending = new LinkedHashMap<>();
+            catalogInvalidated = false;
+        }
+
+        try {
+            if (invalidated) {
+                rabbitTemplate.convertAndSend(exchange, "", ProductChangedMessage.catalogChanged());
+                invalidated = false;
+            }
+            var iterator = batch.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, PendingChange> entry = iterator.next();
+                rabbitTemplate.convertAndSend(exchange, "", entry.getValue().toMessage(entry.getKey()));
+                iterator.remove();
+            }
+        } catch (AmqpException e) {
+            log.warn("Failed to publish product changes, {} will be retried: {}", batch.size(), e.getMessage());
+            requeue(batch, invalidated);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private synchronized void requeue(Map<Long, PendingChange> unsent, boolean invalidated) {
+        if (invalidated || catalogInvalidated) {
+            pending.clear();
+            catalogInvalidated = true;
+            return;
+        }
+        // Changes recorded meanwhile are newer and win when both exist.
+        Map<Long, PendingChange> merged = new LinkedHashMap<>(unsent);
+        pending.forEach((id, newer) -> merged.merge(id, newer, PendingChange::followedBy));
+        pending = merged;
+    }
+
+    private static final class PendingChange {
+        private Long version;
+        private final Set<String> fields = new TreeSet<>();
+        private boolean deleted;
+
+        PendingChange followedBy(PendingChange newer) {
+            if (newer.deleted) {
+                return newer;
+            }
+            if (newer.version != null) {
+                version = newer.version;
+            }
+            fields.addAll(newer.fields);
+            deleted = false;
+            return this;
+        }
+
+        ProductChangedMessage toMessage(Long productId) {
+            return new ProductChangedMessage(productId, deleted ? null : version, List.copyOf(fields), deleted);
+        }
+    }
+
+    /**
+     * {@code productId} is null for catalog-wide changes such as bulk imports, after which consumers
+     * should drop all cached product data.
+     */
+    public record ProductChangedMessage(
+            Long productId,
+            Long version,
+            List<String> changedFields,
+            boolean deleted
+    ) {
+        static ProductChangedMessage catalogChanged() {
+            return new ProductChangedMessage(null, null, List.of(), false);
+        }
+    }
+}
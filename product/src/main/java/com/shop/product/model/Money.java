@@ -0,0 +1,75 @@
+package com.shop.product.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amount of money as a count of minor units (cents) at a fixed scale of {@value #SCALE}, so
+ * prices compare as longs; convert with {@link #of(BigDecimal)} / {@link #toBigDecimal()} only
+ * where values enter or leave the service (JSON, JPA).
+ */
+public record Money(long minorUnits) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    // Any amount of at least this magnitude saturates; any amount smaller than TINY rounds like TINY.
+    private static final BigDecimal HUGE = BigDecimal.valueOf(Long.MAX_VALUE, SCALE);
+    private static final BigDecimal TINY = BigDecimal.valueOf(1, SCALE + 1);
+
+    /**
+     * Rounds half-up to the currency scale; null is treated as zero. Amounts beyond the range of
+     * {@code long} minor units saturate to {@link Long#MAX_VALUE} / {@link Long#MIN_VALUE}.
+     */
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return ZERO;
+        }
+        return new Money(minorUnits(amount, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Smallest amount not below {@code amount}: as a lower bound it selects exactly the same
+     * prices at the currency scale as the unrounded value.
+     */
+    public static Money ceiling(BigDecimal amount) {
+        return new Money(minorUnits(amount, RoundingMode.CEILING));
+    }
+
+    /**
+     * Largest amount not above {@code amount}; the upper-bound counterpart of {@link #ceiling}.
+     */
+    public static Money floor(BigDecimal amount) {
+        return new Money(minorUnits(amount, RoundingMode.FLOOR));
+    }
+
+    // Extreme exponents are clamped before setScale, which would otherwise expand them digit by
+    // digit (a request parameter of 1e999999999 is a valid BigDecimal).
+    private static long minorUnits(BigDecimal amount, RoundingMode rounding) {
+        if (amount.abs().compareTo(HUGE) >= 0) {
+            return amount.signum() > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+        if (amount.signum() != 0 && amount.abs().compareTo(TINY) < 0) {
+            amount = amount.signum() > 0 ? TINY : TINY.negate();
+        }
+        return amount.setScale(SCALE, rounding).unscaledValue().longValueExact();
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return new Money(minorUnits);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,38 @@
+package com.shop.product.model;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Partial product change: null attributes are left untouched.
+ */
+public record ProductPatch(String name, String category, BigDecimal price, String description, String imageUrl) {
+
+    public boolean isEmpty() {
+        return attributes().isEmpty();
+    }
+
+    /**
+     * Supplied attributes keyed by entity attribute name, in declaration order.
+     */
+    public Map<String, Object> attributes() {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        if (name != null) {
+            attributes.put("name", name);
+        }
+        if (category != null) {
+            attributes.put("category", category);
+        }
+        if (price != null) {
+            attributes.put("price", price);
+        }
+        if (description != null) {
+            attributes.put("description", description);
+        }
+        if (imageUrl != null) {
+            attributes.put("imageUrl", imageUrl);
+        }
+        return attributes;
+    }
+}
@@ -0,0 +1,72 @@
+package com.shop.product.repository;
+
+import com.shop.product.model.Product;
+import com.shop.product.model.ProductPatch;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Hand-written queries on the products table for cases where entity hydration or the
+ * persistence context would be the bottleneck.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Streams every product ordered by id through a forward-only cursor. Products handed to the
+     * consumer are transient and not attached to any persistence context.
+     */
+    void streamAll(Consumer<Product> consumer);
+
+    /**
+     * Inserts the products as one JDBC batch (sent as multi-row INSERTs when the driver rewrites
+     * batches). Generated ids are not read back.
+     */
+    void insertAll(List<Product> products);
+
+    /**
+     * Selects only the given attributes of the matching products as a tuple query. The returned
+     * products are transient and have every other attribute left null. A non-positive
+     * {@code limit} returns all rows.
+     */
+    List<Product> findProjected(Specification<Product> specification, Sort sort, Set<String> attributes, int limit);
+
+    /**
+     * Counts the matching products per distinct category and price in one grouped query, for
+     * building facets without loading the products themselves.
+     */
+    List<CategoryPriceCount> countByCategoryAndPrice(Specification<Product> specification);
+
+    /**
+     * Writes the supplied attributes of one product and bumps its version in a single UPDATE,
+     * without loading the entity. Returns false when no product has that id.
+     */
+    boolean updateAttributes(Long id, Map<String, Object> attributes);
+
+    /**
+     * Reads one product with a locking read, so its stored values and version stay as read until the
+     * transaction ends. The returned product is transient.
+     */
+    Optional<Product> findForUpdate(Long id);
+
+    /**
+     * Applies each patch as one statement of a JDBC batch. The result holds one update count per
+     * entry, in iteration order: 1 when the product was updated, 0 when it does not exist or already
+     * holds the patched values (its version is then left alone).
+     */
+    int[] patchAll(Map<Long, ProductPatch> patches);
+
+    /**
+     * Deletes the products as one JDBC batch and returns one update count per id, in order.
+     */
+    int[] deleteAllByIdWithCounts(List<Long> ids);
+
+    record CategoryPriceCount(String category, BigDecimal price, long count) {
+    }
+}
@@ -0,0 +1,231 @@
+package com.shop.product.repository;
+
+import com.shop.product.model.Product;
+import com.shop.product.model.ProductPatch;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final String SELECT_ALL =
+            "SELECT id, name, category, price, description, image_url, version FROM products ORDER BY id";
+
+    private static final String SELECT_FOR_UPDATE =
+            "SELECT id, name, category, price, description, image_url, version FROM products WHERE id = ? FOR UPDATE";
+
+    private static final String INSERT =
+            "INSERT INTO products (name, category, price, description, image_url, version) VALUES (?, ?, ?, ?, ?, 0)";
+
+    // COALESCE keeps columns the patch leaves null, so one statement text serves every patch in a batch.
+    // Rows that already hold the patched values do not match, so they keep their version. BINARY makes
+    // the text comparisons case-sensitive like the assignment itself.
+    private static final String PATCH =
+            "UPDATE products SET name = COALESCE(?, name), category = COALESCE(?, category), price = COALESCE(?, price), "
+                    + "description = COALESCE(?, description), image_url = COALESCE(?, image_url), version = version + 1 "
+                    + "WHERE id = ? AND NOT (name <=> BINARY COALESCE(?, name) AND category <=> BINARY COALESCE(?, category) "
+                    + "AND price <=> COALESCE(?, price) AND description <=> BINARY COALESCE(?, description) "
+                    + "AND image_url <=> BINARY COALESCE(?, image_url))";
+
+    private static final String DELETE = "DELETE FROM products WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final EntityManager entityManager;
+
+    public ProductRepositoryCustomImpl(JdbcTemplate jdbcTemplate,
+                                       EntityManager entityManager,
+                                       @Value("${app.catalog.export.fetch-size:500}") int fetchSize) {
+        this.entityManager = entityManager;
+        // With useCursorFetch=true on the MySQL URL a positive fetch size reads through a server-side cursor
+        // instead of buffering the whole result set in the driver.
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    @Override
+    public void streamAll(Consumer<Product> consumer) {
+        streamingJdbcTemplate.query(SELECT_ALL, resultSet -> {
+            consumer.accept(mapRow(resultSet));
+        });
+    }
+
+    @Override
+    public Optional<Product> findForUpdate(Long id) {
+        return jdbcTemplate.query(SELECT_FOR_UPDATE, (resultSet, rowNum) -> mapRow(resultSet), id).stream().findFirst();
+    }
+
+    private static Product mapRow(ResultSet resultSet) throws SQLException {
+        Product product = new Product(
+                resultSet.getLong("id"),
+                resultSet.getString("name"),
+                resultSet.getString("category"),
+                resultSet.getBigDecimal("price"),
+                resultSet.getString("description"),
+                resultSet.getString("image_url")
+        );
+        product.setVersion(resultSet.getLong("version"));
+        return product;
+    }
+
+    @Override
+    public void insertAll(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT, products, products.size(), (statement, product) -> {
+            statement.setString(1, product.getName());
+            statement.setString(2, product.getCategory());
+            statement.setBigDecimal(3, product.getPrice());
+            statement.setString(4, product.getDescription());
+            statement.setString(5, product.getImageUrl());
+        });
+    }
+
+    @Override
+    public List<Product> findProjected(Specification<Product> specification, Sort sort, Set<String> attributes, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+
+        List<String> selected = List.copyOf(attributes);
+        List<Selection<?>> selections = selected.stream()
+                .<Selection<?>>map(attribute -> root.get(attribute).alias(attribute))
+                .toList();
+        query.multiselect(selections);
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (sort.isSorted()) {
+            query.orderBy(toOrders(sort, root, cb));
+        }
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (limit > 0) {
+            typedQuery.setMaxResults(limit);
+        }
+        return typedQuery.getResultList().stream()
+                .map(tuple -> toProduct(tuple, selected))
+                .toList();
+    }
+
+    @Override
+    public List<CategoryPriceCount> countByCategoryAndPrice(Specification<Product> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+        Path<String> category = root.get("category");
+        Path<BigDecimal> price = root.get("price");
+
+        query.multiselect(category, price, cb.count(root));
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.groupBy(category, price);
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(tuple -> new CategoryPriceCount(tuple.get(0, String.class), tuple.get(1, BigDecimal.class),
+                        tuple.get(2, Long.class)))
+                .toList();
+    }
+
+    private static Product toProduct(Tuple tuple, List<String> attributes) {
+        Product product = new Product();
+        for (String attribute : attributes) {
+            Object value = tuple.get(attribute);
+            switch (attribute) {
+                case "id" -> product.setId((Long) value);
+                case "name" -> product.setName((String) value);
+                case "category" -> product.setCategory((String) value);
+                case "price" -> product.setPrice((BigDecimal) value);
+                case "description" -> product.setDescription((String) value);
+                case "imageUrl" -> product.setImageUrl((String) value);
+                case "version" -> product.setVersion((Long) value);
+                default -> throw new IllegalArgumentException("Unknown product attribute: " + attribute);
+            }
+        }
+        return product;
+    }
+
+    @Override
+    public boolean updateAttributes(Long id, Map<String, Object> attributes) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Product> update = cb.createCriteriaUpdate(Product.class);
+        Root<Product> root = update.from(Product.class);
+        attributes.forEach((attribute, value) -> update.set(root.get(attribute), value));
+        update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+        update.where(cb.equal(root.get("id"), id));
+        return entityManager.createQuery(update).executeUpdate() > 0;
+    }
+
+    @Override
+    public int[] patchAll(Map<Long, ProductPatch> patches) {
+        List<Map.Entry<Long, ProductPatch>> entries = new ArrayList<>(patches.entrySet());
+        if (entries.isEmpty()) {
+            return new int[0];
+        }
+        return flatten(jdbcTemplate.batchUpdate(PATCH, entries, entries.size(), (statement, entry) -> {
+            ProductPatch patch = entry.getValue();
+            statement.setString(1, patch.name());
+            statement.setString(2, patch.category());
+            statement.setBigDecimal(3, patch.price());
+            statement.setString(4, patch.description());
+            statement.setString(5, patch.imageUrl());
+            statement.setLong(6, entry.getKey());
+            statement.setString(7, patch.name());
+            statement.setString(8, patch.category());
+            statement.setBigDecimal(9, patch.price());
+            statement.setString(10, patch.description());
+            statement.setString(11, patch.imageUrl());
+        }), entries.size());
+    }
+
+    @Override
+    public int[] deleteAllByIdWithCounts(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new int[0];
+        }
+        return flatten(jdbcTemplate.batchUpdate(DELETE, ids, ids.size(),
+                (statement, id) -> statement.setLong(1, id)), ids.size());
+    }
+
+    private static int[] flatten(int[][] counts, int size) {
+        int[] flat = new int[size];
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                flat[index++] = count;
+            }
+        }
+        return flat;
+    }
+}
@@ -0,0 +1,161 @@
+package com.shop.product.service;
+
+import com.shop.product.catalog.CatalogChangePublisher;
+import com.shop.product.model.ProductPatch;
+import com.shop.product.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies price/category changes and deletes to many products at once. Each kind of change runs
+ * as JDBC batches of single-row statements, so every id gets its own outcome without a
+ * preceding existence check (only patches that changed nothing are looked up afterwards);
+ * listeners get one catalog-change notification at the end.
+ */
+@Service
+public class ProductBulkService {
+
+    public enum Outcome {UPDATED, UNCHANGED, DELETED, NOT_FOUND, INVALID}
+
+    private final ProductRepository productRepository;
+    private final CatalogChangePublisher catalogChangePublisher;
+    private final int batchSize;
+
+    public ProductBulkService(ProductRepository productRepository,
+                              CatalogChangePublisher catalogChangePublisher,
+                              @Value("${app.catalog.bulk.batch-size:1000}") int batchSize) {
+        this.productRepository = productRepository;
+        this.catalogChangePublisher = catalogChangePublisher;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Runs the updates, then the deletes, in one transaction. A repeated id in {@code updates}
+     * keeps its last patch.
+     */
+    @Transactional
+    public BulkReport apply(List<BulkUpdate> updates, List<Long> deletes) {
+        BulkReport report = new BulkReport();
+
+        Map<Long, ProductPatch> patches = new LinkedHashMap<>();
+        for (BulkUpdate update : updates) {
+            ProductPatch patch = new ProductPatch(null, update.category(), update.price(), null, null);
+            if (update.id() == null || update.id() <= 0 || patch.isEmpty()) {
+                report.add(update.id(), "update", Outcome.INVALID);
+            } else {
+                patches.put(update.id(), patch);
+            }
+        }
+        List<Long> ids = new ArrayList<>(patches.keySet());
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            Map<Long, ProductPatch> chunk = new LinkedHashMap<>();
+            ids.subList(from, Math.min(from + batchSize, ids.size())).forEach(id -> chunk.put(id, patches.get(id)));
+            recordPatches(report, new ArrayList<>(chunk.keySet()), productRepository.patchAll(chunk));
+        }
+
+        Set<Long> uniqueDeletes = new LinkedHashSet<>();
+        for (Long id : deletes) {
+            if (id == null || id <= 0) {
+                report.add(id, "delete", Outcome.INVALID);
+            } else {
+                uniqueDeletes.add(id);
+            }
+        }
+        List<Long> deleteIds = new ArrayList<>(uniqueDeletes);
+        for (int from = 0; from < deleteIds.size(); from += batchSize) {
+            List<Long> chunk = deleteIds.subList(from, Math.min(from + batchSize, deleteIds.size()));
+            record(report, "delete", chunk, productRepository.deleteAllByIdWithCounts(chunk), Outcome.DELETED);
+        }
+
+        if (report.updated > 0 || report.deleted > 0) {
+            catalogChangePublisher.catalogChanged();
+        }
+        return report;
+    }
+
+    // A patch that matched nothing either hit a missing product or one already holding its values;
+    // one id lookup per chunk tells them apart.
+    private void recordPatches(BulkReport report, List<Long> ids, int[] counts) {
+        List<Long> unmatched = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (counts[i] == 0) {
+                unmatched.add(ids.get(i));
+            }
+        }
+        Set<Long> existing = unmatched.isEmpty() ? Set.of() : new HashSet<>(productRepository.findExistingIds(unmatched));
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            Outcome outcome = counts[i] != 0 ? Outcome.UPDATED : existing.contains(id) ? Outcome.UNCHANGED : Outcome.NOT_FOUND;
+            report.add(id, "update", outcome);
+        }
+    }
+
+    private static void record(BulkReport report, String action, List<Long> ids, int[] counts, Outcome applied) {
+        for (int i = 0; i < ids.size(); i++) {
+            // Drivers may report SUCCESS_NO_INFO for rewritten batches; the statement did run.
+            boolean hit = counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO;
+            report.add(ids.get(i), action, hit ? applied : Outcome.NOT_FOUND);
+        }
+    }
+
+    public record BulkUpdate(Long id, BigDecimal price, String category) {
+    }
+
+    public record BulkResult(Long id, String action, Outcome outcome) {
+    }
+
+    public static class BulkReport {
+        private int updated;
+        private int unchanged;
+        private int deleted;
+        private int notFound;
+        private int invalid;
+        private final List<BulkResult> results = new ArrayList<>();
+
+        private void add(Long id, String action, Outcome outcome) {
+            switch (outcome) {
+                case UPDATED -> updated++;
+                case UNCHANGED -> unchanged++;
+                case DELETED -> deleted++;
+                case NOT_FOUND -> notFound++;
+                case INVALID -> invalid++;
+            }
+            results.add(new BulkResult(id, action, outcome));
+        }
+
+        public int getUpdated() {
+            return updated;
+        }
+
+        public int getUnchanged() {
+            return unchanged;
+        }
+
+        public int getDeleted() {
+            return deleted;
+        }
+
+        public int getNotFound() {
+            return notFound;
+        }
+
+        public int getInvalid() {
+            return invalid;
+        }
+
+        public List<BulkResult> getResults() {
+            return results;
+        }
+    }
+}
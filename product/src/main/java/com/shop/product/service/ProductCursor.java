@@ -0,0 +1,51 @@
+package com.shop.product.service;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position for paged catalog reads: the sort the page was produced with, the sort
+ * value and id of the last returned product, and the total captured when paging started.
+ */
+public record ProductCursor(
+        String sortField,
+        Sort.Direction direction,
+        long lastId,
+        Long approximateTotal,
+        String lastValue
+) {
+
+    private static final String VERSION = "v1";
+
+    public String encode() {
+        String raw = String.join(":",
+                VERSION,
+                sortField,
+                direction.name(),
+                Long.toString(lastId),
+                approximateTotal == null ? "-" : approximateTotal.toString(),
+                lastValue == null ? "" : lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 6);
+            if (parts.length != 6 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Unsupported cursor");
+            }
+            return new ProductCursor(
+                    parts[1],
+                    Sort.Direction.valueOf(parts[2]),
+                    Long.parseLong(parts[3]),
+                    "-".equals(parts[4]) ? null : Long.valueOf(parts[4]),
+                    parts[5]
+            );
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
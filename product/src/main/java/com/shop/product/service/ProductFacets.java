@@ -0,0 +1,18 @@
+package com.shop.product.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Sidebar aggregates for a catalog filter: product count per category and a fixed-width price
+ * histogram. Every bucket is listed, empty ones included; the last bucket is open-ended
+ * ({@code to} is null).
+ */
+public record ProductFacets(long total, List<CategoryCount> categories, List<PriceBucket> priceHistogram) {
+
+    public record CategoryCount(String category, long count) {
+    }
+
+    public record PriceBucket(BigDecimal from, BigDecimal to, long count) {
+    }
+}
@@ -0,0 +1,162 @@
+package com.shop.product.service;
+
+import com.shop.product.catalog.CatalogChangePublisher;
+import com.shop.product.catalog.CatalogVersion;
+import com.shop.product.model.Product;
+import com.shop.product.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Loads large product sets in chunks of JDBC batch inserts. Rows arrive already parsed and
+ * validated; invalid rows and rows the database rejects are reported individually, and listeners
+ * receive one catalog-change notification once the whole import is done.
+ * <p>
+ * The import is deliberately not one transaction: each chunk commits in its own transaction so a
+ * large load does not hold locks and undo log for its whole duration. If reading the input fails midway, the
+ * chunks committed before the failure stay in the catalog (and are announced to listeners).
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final ProductRepository productRepository;
+    private final CatalogChangePublisher catalogChangePublisher;
+    private final CatalogVersion catalogVersion;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+
+    public ProductImportService(ProductRepository productRepository,
+                                CatalogChangePublisher catalogChangePublisher,
+                                CatalogVersion catalogVersion,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.catalog.import.chunk-size:1000}") int chunkSize) {
+        this.productRepository = productRepository;
+        this.catalogChangePublisher = catalogChangePublisher;
+        this.catalogVersion = catalogVersion;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public ImportReport importProducts(Iterator<ImportRow> rows) {
+        ImportReport report = new ImportReport();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        try {
+            while (rows.hasNext()) {
+                ImportRow row = rows.next();
+                report.received++;
+                if (!row.errors().isEmpty()) {
+                    report.reject(row.line(), row.errors());
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    insertChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+            insertChunk(chunk, report);
+        } finally {
+            if (report.imported > 0) {
+                catalogChangePublisher.catalogChanged();
+            }
+        }
+        log.info("Product import finished: {} received, {} imported, {} failed",
+                report.received, report.imported, report.failed);
+        return report;
+    }
+
+    private void insertChunk(List<ImportRow> chunk, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            chunkTransaction.executeWithoutResult(status -> {
+                productRepository.insertAll(chunk.stream().map(ImportRow::product).toList());
+                // Conditional reads see each committed chunk, not only the finished import.
+                catalogVersion.recordWrite();
+            });
+            report.imported += chunk.size();
+        } catch (DataAccessException e) {
+            // The driver may have written the good rows of the batch before failing; the rollback
+            // removes them, so the row-by-row retry pins down the culprits without duplicates.
+            log.warn("Import chunk of {} rows failed, retrying individually: {}", chunk.size(), e.getMessage());
+            long imported = report.imported;
+            for (ImportRow row : chunk) {
+                try {
+                    productRepository.insertAll(List.of(row.product()));
+                    report.imported++;
+                } catch (DataAccessException rowFailure) {
+                    report.reject(row.line(), List.of(rootMessage(rowFailure)));
+                }
+            }
+            if (report.imported > imported) {
+                catalogVersion.recordWrite();
+            }
+        }
+    }
+
+    private static String rootMessage(DataAccessException e) {
+        Throwable cause = e.getMostSpecificCause();
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    /**
+     * One input record: {@code line} is its 1-based position in the input, {@code errors} holds
+     * parse or validation messages (empty when the product is ready to insert).
+     */
+    public record ImportRow(long line, Product product, List<String> errors) {
+
+        public static ImportRow valid(long line, Product product) {
+            return new ImportRow(line, product, List.of());
+        }
+
+        public static ImportRow invalid(long line, List<String> errors) {
+            return new ImportRow(line, null, List.copyOf(errors));
+        }
+    }
+
+    public record RowError(long line, List<String> messages) {
+    }
+
+    public static class ImportReport {
+        private long received;
+        private long imported;
+        private long failed;
+        private final List<RowError> errors = new ArrayList<>();
+
+        private void reject(long line, List<String> messages) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(line, messages));
+            }
+        }
+
+        public long getReceived() {
+            return received;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public List<RowError> getErrors() {
+            return errors;
+        }
+    }
+}
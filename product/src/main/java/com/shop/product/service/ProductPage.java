@@ -0,0 +1,12 @@
+package com.shop.product.service;
+
+import com.shop.product.model.Product;
+
+import java.util.List;
+
+/**
+ * One keyset page of catalog results. {@code nextCursor} is null on the last page and
+ * {@code approximateTotal} is only set when the caller asked for it.
+ */
+public record ProductPage(List<Product> items, String nextCursor, Long approximateTotal) {
+}
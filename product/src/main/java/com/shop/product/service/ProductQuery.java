@@ -0,0 +1,22 @@
+package com.shop.product.service;
+
+import com.shop.product.model.Money;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Catalog list query after normalization: price bounds are non-negative and rounded inward to
+ * whole cents (which selects the same prices), search is trimmed (or null) and the sort field is
+ * one of the whitelisted columns (or null).
+ */
+public record ProductQuery(
+        Money minPrice,
+        Money maxPrice,
+        String search,
+        String sortField,
+        Sort.Direction sortDirection
+) {
+
+    public boolean isDescending() {
+        return sortDirection == Sort.Direction.DESC;
+    }
+}
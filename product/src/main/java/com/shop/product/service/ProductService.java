@@ -1,15 +1,34 @@
 package com.shop.product.service;
 
+import com.shop.product.catalog.CatalogChangePublisher;
+import com.shop.product.catalog.CatalogFacets;
+import com.shop.product.catalog.InMemoryCatalog;
+import com.shop.product.catalog.ProductSearchIndex;
+import com.shop.product.catalog.QueryResultCache;
+import com.shop.product.model.Money;
 import com.shop.product.model.Product;
+import com.shop.product.model.ProductPatch;
 import com.shop.product.repository.ProductRepository;
+import com.shop.product.repository.ProductRepositoryCustom.CategoryPriceCount;
+import jakarta.persistence.criteria.Path;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -18,18 +37,127 @@ import java.util.function.Consumer;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final InMemoryCatalog inMemoryCatalog;
+    private final ProductSearchIndex productSearchIndex;
+    private final CatalogChangePublisher catalogChangePublisher;
+    private final CatalogFacets catalogFacets;
+    private final QueryResultCache queryResultCache;
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository,
+                          InMemoryCatalog inMemoryCatalog,
+                          ProductSearchIndex productSearchIndex,
+                          CatalogChangePublisher catalogChangePublisher,
+                          CatalogFacets catalogFacets,
+                          QueryResultCache queryResultCache) {
         this.productRepository = productRepository;
+        this.inMemoryCatalog = inMemoryCatalog;
+        this.productSearchIndex = productSearchIndex;
+        this.catalogChangePublisher = catalogChangePublisher;
+        this.catalogFacets = catalogFacets;
+        this.queryResultCache = queryResultCache;
     }
 
+    // Read-only transactions go to a replica when one is configured. The datasource is a lazy
+    // connection proxy, so paths served from memory or the query cache never check out a connection.
     @Transactional(readOnly = true)
     public List<Product> getProducts(BigDecimal minPrice,
                                      BigDecimal maxPrice,
                                      String search,
                                      String sortField,
                                      String sortDirection) {
+        return getProducts(minPrice, maxPrice, search, sortField, sortDirection, null);
+    }
+
+    /**
+     * Same as {@link #getProducts(BigDecimal, BigDecimal, String, String, String)}, but when the
+     * query is served by the database only the requested {@code fields} (plus id and version) are
+     * selected; other attributes of the returned products are null. Null means all fields.
+     */
+    @Transactional(readOnly = true)
+    public List<Product> getProducts(BigDecimal minPrice,
+                                     BigDecimal maxPrice,
+                                     String search,
+                                     String sortField,
+                                     String sortDirection,
+                                     Set<String> fields) {
+        ProductQuery query = normalizeQuery(minPrice, maxPrice, search, sortField, sortDirection);
+        if (fields != null && usesRepository(query)) {
+            Specification<Product> specification = ProductSpecifications.filter(query.minPrice(), query.maxPrice(), query.search());
+            Sort sortSpec = ProductSpecifications.sort(query.sortField(), query.sortDirection());
+            return productRepository.findProjected(specification, sortSpec, projectionOf(fields, query.sortField()), 0);
+        }
+        return queryResultCache.getOrLoad(query, this::findProducts, this::getProductsByIds);
+    }
+
+    /**
+     * Keyset-paged variant of {@link #getProducts}. Results are ordered by the sort field with the
+     * id as tie-breaker (id alone when no sort is given); {@code cursor} is the {@code nextCursor}
+     * of the previous page. Throws {@link IllegalArgumentException} for a malformed cursor or one
+     * that was produced for a different sort. {@code fields} narrows the selected columns like
+     * {@link #getProducts(BigDecimal, BigDecimal, String, String, String, Set)}.
+     */
+    @Transactional(readOnly = true)
+    public ProductPage getProductPage(BigDecimal minPrice,
+                                      BigDecimal maxPrice,
+                                      String search,
+                                      String sortField,
+                                      String sortDirection,
+                                      int limit,
+                                      String cursor,
+                                      boolean includeTotal,
+                                      Set<String> fields) {
+        ProductQuery query = normalizeQuery(minPrice, maxPrice, search, sortField, sortDirection);
+        if (query.sortField() == null) {
+            query = new ProductQuery(query.minPrice(), query.maxPrice(), query.search(), "id", query.sortDirection());
+        }
+
+        ProductCursor after = cursor == null ? null : ProductCursor.decode(cursor);
+        if (after != null && (!query.sortField().equals(after.sortField()) || query.sortDirection() != after.direction())) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        if (usesRepository(query)) {
+            return seekInRepository(query, after, pageSize, includeTotal, fields);
+        }
+        if (usesSearchIndex(query) && !inMemoryCatalog.isEnabled()) {
+            return pageSearchHits(query, after, pageSize, includeTotal);
+        }
+        return pageOf(findProducts(query), query, after, pageSize, includeTotal);
+    }
 
+    /**
+     * Category counts and price histogram for the same filter as {@link #getProducts}. Served from
+     * the precomputed counters unless a search term or bucket-unaligned price bounds require
+     * aggregating the matching products, which the database does unless they are held in memory.
+     */
+    @Transactional(readOnly = true)
+    public ProductFacets getFacets(BigDecimal minPrice, BigDecimal maxPrice, String search) {
+        ProductQuery query = normalizeQuery(minPrice, maxPrice, search, null, null);
+        if (query.search() == null && catalogFacets.canAnswer(query.minPrice(), query.maxPrice())) {
+            return catalogFacets.fromCounters(query.minPrice(), query.maxPrice());
+        }
+        if (inMemoryCatalog.isEnabled()) {
+            return catalogFacets.aggregateProducts(findProducts(query));
+        }
+        if (usesSearchIndex(query)) {
+            List<Long> ids = productSearchIndex.search(query.search()).idList();
+            List<CategoryPriceCount> counts = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += HIT_CHUNK_SIZE) {
+                counts.addAll(productRepository.countByCategoryAndPrice(
+                        hitSpecification(ids.subList(from, Math.min(ids.size(), from + HIT_CHUNK_SIZE)), query)));
+            }
+            return catalogFacets.aggregate(counts);
+        }
+        return catalogFacets.aggregate(productRepository.countByCategoryAndPrice(
+                ProductSpecifications.filter(query.minPrice(), query.maxPrice(), query.search())));
+    }
+
+    private ProductQuery normalizeQuery(BigDecimal minPrice,
+                                        BigDecimal maxPrice,
+                                        String search,
+                                        String sortField,
+                                        String sortDirection) {
         if (minPrice != null && minPrice.compareTo(BigDecimal.ZERO) < 0) {
             minPrice = BigDecimal.ZERO;
         }
@@ -49,8 +177,164 @@ public class ProductService {
             }
         }
 
-        Specification<Product> specification = buildSpecification(minPrice, maxPrice, search);
-        Sort sortSpec = resolveSort(sortField, sortDirection);
+        String normalizedField = normalizeSortField(sortField);
+        if (RELEVANCE_SORT_FIELD.equals(normalizedField) && search == null) {
+            normalizedField = null;
+        }
+        Sort.Direction direction = normalizeSortDirection(sortDirection);
+        if (direction == null) {
+            // Relevance reads "descending" as most relevant first, which is what a search should default to.
+            direction = RELEVANCE_SORT_FIELD.equals(normalizedField) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        }
+        return new ProductQuery(
+                minPrice == null ? null : Money.ceiling(minPrice),
+                maxPrice == null ? null : Money.floor(maxPrice),
+                search,
+                normalizedField,
+                direction
+        );
+    }
+
+    private List<Product> findProducts(ProductQuery query) {
+        if (usesSearchIndex(query)) {
+            return findSearchHits(query);
+        }
+        if (inMemoryCatalog.isEnabled()) {
+            return inMemoryCatalog.query(query);
+        }
+        return findInRepository(query);
+    }
+
+    private boolean usesRepository(ProductQuery query) {
+        return !usesSearchIndex(query) && !inMemoryCatalog.isEnabled();
+    }
+
+    // Id and version are always needed (ETags, cursors), and so is the sort key for the next cursor.
+    private static Set<String> projectionOf(Set<String> fields, String sortField) {
+        Set<String> attributes = new HashSet<>(fields);
+        attributes.add("id");
+        attributes.add("version");
+        if (sortField != null && ALLOWED_SORT_FIELDS.contains(sortField)) {
+            attributes.add(sortField);
+        }
+        return attributes;
+    }
+
+    private boolean usesSearchIndex(ProductQuery query) {
+        return query.search() != null
+                && productSearchIndex.isEnabled()
+                && ProductSearchIndex.isIndexable(query.search());
+    }
+
+    private List<Product> findSearchHits(ProductQuery query) {
+        ProductSearchIndex.SearchHits hits = productSearchIndex.search(query.search());
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        if (inMemoryCatalog.isEnabled()) {
+            return inMemoryCatalog.select(hits.ids(), query);
+        }
+
+        List<Long> ids = rankedHits(hits, query);
+        List<Product> products = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += HIT_CHUNK_SIZE) {
+            products.addAll(hydrateHits(ids.subList(from, Math.min(ids.size(), from + HIT_CHUNK_SIZE)), query));
+        }
+        if (!RELEVANCE_SORT_FIELD.equals(query.sortField())) {
+            Comparator<Product> order = keyOrder(query.sortField());
+            products.sort(query.isDescending() ? order.reversed() : order);
+        }
+        return products;
+    }
+
+    /**
+     * One page of search hits when products live in the database. Relevance pages walk the ranked
+     * ids and hydrate only as many as the page needs; other sorts read just the sort keys of all
+     * hits and load full rows for the page alone.
+     */
+    private ProductPage pageSearchHits(ProductQuery query, ProductCursor after, int pageSize, boolean includeTotal) {
+        List<Long> ids = rankedHits(productSearchIndex.search(query.search()), query);
+        if (!RELEVANCE_SORT_FIELD.equals(query.sortField())) {
+            List<Product> keys = new ArrayList<>(ids.size());
+            Set<String> keyAttributes = projectionOf(Set.of(), query.sortField());
+            for (int from = 0; from < ids.size(); from += HIT_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + HIT_CHUNK_SIZE));
+                keys.addAll(productRepository.findProjected(hitSpecification(chunk, query), Sort.unsorted(), keyAttributes, 0));
+            }
+            Comparator<Product> order = keyOrder(query.sortField());
+            keys.sort(query.isDescending() ? order.reversed() : order);
+
+            Long total = after != null ? after.approximateTotal() : includeTotal ? Long.valueOf(keys.size()) : null;
+            int start = after == null ? 0 : positionAfter(keys, query, after);
+            int end = Math.min(keys.size(), start + pageSize);
+            List<Product> items = getProductsByIds(keys.subList(start, end).stream().map(Product::getId).toList());
+            String next = end < keys.size() ? cursorAfter(keys.get(end - 1), end - 1, query, total).encode() : null;
+            return new ProductPage(items, next, total);
+        }
+
+        // Relevance cursors carry the hit position, so a page can resume even if its last product is gone.
+        int start = 0;
+        if (after != null) {
+            int seen = ids.indexOf(after.lastId());
+            start = seen >= 0 ? seen + 1 : Math.min(ids.size(), Integer.parseInt(after.lastValue()) + 1);
+        }
+        List<Product> items = new ArrayList<>(pageSize);
+        int lastPosition = -1;
+        boolean more = false;
+        for (int from = start; from < ids.size() && !more; from += pageSize + 1) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + pageSize + 1));
+            List<Product> hydrated = hydrateHits(chunk, query);
+            for (Product product : hydrated) {
+                if (items.size() == pageSize) {
+                    more = true;
+                    break;
+                }
+                items.add(product);
+                lastPosition = from + chunk.indexOf(product.getId());
+            }
+        }
+        Long total = after != null ? after.approximateTotal() : includeTotal ? countHits(ids, query) : null;
+        String next = more ? cursorAfter(items.get(items.size() - 1), lastPosition, query, total).encode() : null;
+        return new ProductPage(List.copyOf(items), next, total);
+    }
+
+    // Hit ids in the order of the requested relevance direction (the index ranks best first).
+    private static List<Long> rankedHits(ProductSearchIndex.SearchHits hits, ProductQuery query) {
+        List<Long> ids = new ArrayList<>(hits.idList());
+        if (RELEVANCE_SORT_FIELD.equals(query.sortField()) && !query.isDescending()) {
+            Collections.reverse(ids);
+        }
+        return ids;
+    }
+
+    // Products of the given hits that match the price filter, in the order of the ids.
+    private List<Product> hydrateHits(List<Long> ids, ProductQuery query) {
+        Map<Long, Product> byId = new HashMap<>();
+        productRepository.findAll(hitSpecification(ids, query)).forEach(product -> byId.put(product.getId(), product));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private long countHits(List<Long> ids, ProductQuery query) {
+        if (query.minPrice() == null && query.maxPrice() == null) {
+            return ids.size();
+        }
+        long count = 0;
+        for (int from = 0; from < ids.size(); from += HIT_CHUNK_SIZE) {
+            count += productRepository.count(hitSpecification(ids.subList(from, Math.min(ids.size(), from + HIT_CHUNK_SIZE)), query));
+        }
+        return count;
+    }
+
+    private Specification<Product> hitSpecification(List<Long> ids, ProductQuery query) {
+        List<Long> slice = List.copyOf(ids);
+        Specification<Product> idSpec = (root, criteriaQuery, cb) -> root.get("id").in(slice);
+        Specification<Product> priceSpec = ProductSpecifications.filter(query.minPrice(), query.maxPrice(), null);
+        return priceSpec == null ? idSpec : priceSpec.and(idSpec);
+    }
+
+    private List<Product> findInRepository(ProductQuery query) {
+        Specification<Product> specification = ProductSpecifications.filter(query.minPrice(), query.maxPrice(), query.search());
+        Sort sortSpec = ProductSpecifications.sort(query.sortField(), query.sortDirection());
 
         if (sortSpec.isUnsorted()) {
             return specification == null
@@ -64,89 +348,330 @@ public class ProductService {
         return productRepository.findAll(specification, sortSpec);
     }
 
+    private ProductPage seekInRepository(ProductQuery query,
+                                         ProductCursor after,
+                                         int pageSize,
+                                         boolean includeTotal,
+                                         Set<String> fields) {
+        Specification<Product> filter = ProductSpecifications.filter(query.minPrice(), query.maxPrice(), query.search());
+        Long total = after != null
+                ? after.approximateTotal()
+                : includeTotal ? (filter == null ? productRepository.count() : productRepository.count(filter)) : null;
+
+        Specification<Product> specification = filter;
+        if (after != null) {
+            Specification<Product> seek = seekSpecification(query, after);
+            specification = specification == null ? seek : specification.and(seek);
+        }
+        Sort sortSpec = ProductSpecifications.sort(query.sortField(), query.sortDirection());
+        List<Product> rows;
+        if (fields != null) {
+            rows = productRepository.findProjected(specification, sortSpec, projectionOf(fields, query.sortField()), pageSize + 1);
+        } else {
+            Specification<Product> rowSpecification = specification != null
+                    ? specification
+                    : (root, criteriaQuery, cb) -> cb.conjunction();
+            rows = productRepository.findBy(rowSpecification, q -> q.sortBy(sortSpec).limit(pageSize + 1).all());
+        }
+        if (rows.size() <= pageSize) {
+            return new ProductPage(rows, null, total);
+        }
+        List<Product> items = List.copyOf(rows.subList(0, pageSize));
+        Product last = items.get(items.size() - 1);
+        return new ProductPage(items, cursorAfter(last, pageSize - 1, query, total).encode(), total);
+    }
+
+    private Specification<Product> seekSpecification(ProductQuery query, ProductCursor after) {
+        boolean ascending = query.sortDirection() == Sort.Direction.ASC;
+        long lastId = after.lastId();
+        return switch (query.sortField()) {
+            case "price" -> seekAfter("price", new BigDecimal(after.lastValue()), lastId, ascending);
+            case "name", "category" -> seekAfter(query.sortField(), after.lastValue(), lastId, ascending);
+            default -> (root, criteriaQuery, cb) -> ascending
+                    ? cb.greaterThan(root.get("id"), lastId)
+                    : cb.lessThan(root.get("id"), lastId);
+        };
+    }
+
+    private static <T extends Comparable<? super T>> Specification<Product> seekAfter(String field,
+                                                                                       T value,
+                                                                                       long lastId,
+                                                                                       boolean ascending) {
+        return (root, criteriaQuery, cb) -> {
+            Path<T> path = root.get(field);
+            Path<Long> id = root.get("id");
+            return cb.or(
+                    ascending ? cb.greaterThan(path, value) : cb.lessThan(path, value),
+                    cb.and(cb.equal(path, value), ascending ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId))
+            );
+        };
+    }
+
+    private ProductPage pageOf(List<Product> products,
+                               ProductQuery query,
+                               ProductCursor after,
+                               int pageSize,
+                               boolean includeTotal) {
+        Long total = after != null
+                ? after.approximateTotal()
+                : includeTotal ? Long.valueOf(products.size()) : null;
+        int start = after == null ? 0 : positionAfter(products, query, after);
+        int end = Math.min(products.size(), start + pageSize);
+        List<Product> items = List.copyOf(products.subList(start, end));
+        if (end >= products.size()) {
+            return new ProductPage(items, null, total);
+        }
+        return new ProductPage(items, cursorAfter(products.get(end - 1), end - 1, query, total).encode(), total);
+    }
+
+    private int positionAfter(List<Product> products, ProductQuery query, ProductCursor after) {
+        for (int i = 0; i < products.size(); i++) {
+            if (products.get(i).getId() == after.lastId()) {
+                return i + 1;
+            }
+        }
+        // The last seen product is gone (deleted or no longer matching); resume at its sort position.
+        if (RELEVANCE_SORT_FIELD.equals(query.sortField())) {
+            return Math.min(products.size(), Integer.parseInt(after.lastValue()) + 1);
+        }
+        Comparator<Product> order = keyOrder(query.sortField());
+        Product marker = new Product();
+        marker.setId(after.lastId());
+        switch (query.sortField()) {
+            case "price" -> marker.setPrice(new BigDecimal(after.lastValue()));
+            case "name" -> marker.setName(after.lastValue());
+            case "category" -> marker.setCategory(after.lastValue());
+            default -> {
+            }
+        }
+        if (query.isDescending()) {
+            order = order.reversed();
+        }
+        for (int i = 0; i < products.size(); i++) {
+            if (order.compare(products.get(i), marker) > 0) {
+                return i;
+            }
+        }
+        return products.size();
+    }
+
+    private static Comparator<Product> keyOrder(String sortField) {
+        Comparator<Product> byId = Comparator.comparing(Product::getId);
+        if (sortField == null) {
+            return byId;
+        }
+        return switch (sortField) {
+            case "price" -> Comparator.comparing(Product::getPrice).thenComparing(byId);
+            case "name" -> Comparator.comparing(Product::getName, String.CASE_INSENSITIVE_ORDER).thenComparing(byId);
+            case "category" -> Comparator.comparing(Product::getCategory, String.CASE_INSENSITIVE_ORDER).thenComparing(byId);
+            default -> byId;
+        };
+    }
+
+    private ProductCursor cursorAfter(Product last, int position, ProductQuery query, Long total) {
+        String value = switch (query.sortField()) {
+            case "price" -> last.getPrice().toPlainString();
+            case "name" -> last.getName();
+            case "category" -> last.getCategory();
+            case RELEVANCE_SORT_FIELD -> Integer.toString(position);
+            default -> "";
+        };
+        return new ProductCursor(query.sortField(), query.sortDirection(), last.getId(), total, value);
+    }
+
     @Transactional(readOnly = true)
     public Optional<Product> getProductById(Long id) {
+        return getProductById(id, null);
+    }
+
+    /**
+     * Looks up one product, selecting only {@code fields} (plus id and version) when it has to be
+     * read from the database. Null means all fields.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Product> getProductById(Long id, Set<String> fields) {
         if (id == null || id <= 0) {
             return Optional.empty();
         }
+        if (inMemoryCatalog.isEnabled()) {
+            return inMemoryCatalog.findById(id);
+        }
+        if (fields != null) {
+            Specification<Product> byId = (root, criteriaQuery, cb) -> cb.equal(root.get("id"), id);
+            List<Product> rows = productRepository.findProjected(byId, Sort.unsorted(), projectionOf(fields, null), 1);
+            return rows.stream().findFirst();
+        }
         return productRepository.findById(id);
     }
 
+    /**
+     * Stored version of a product, read without loading the product; empty when it does not exist.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> getProductVersion(Long id) {
+        if (id == null || id <= 0) {
+            return Optional.empty();
+        }
+        return productRepository.findVersionById(id);
+    }
+
+    /**
+     * Resolves many products in a few repository calls of up to 1000 ids. Unknown and invalid ids are skipped;
+     * the result follows the order of the requested ids.
+     */
+    @Transactional(readOnly = true)
+    public List<Product> getProductsByIds(Collection<Long> ids) {
+        List<Long> validIds = ids == null ? List.of() : ids.stream()
+                .filter(id -> id != null && id > 0)
+                .distinct()
+                .toList();
+        if (validIds.isEmpty()) {
+            return List.of();
+        }
+        if (inMemoryCatalog.isEnabled()) {
+            return validIds.stream()
+                    .map(inMemoryCatalog::findById)
+                    .flatMap(Optional::stream)
+                    .toList();
+        }
+
+        Map<Long, Product> byId = new HashMap<>();
+        for (int from = 0; from < validIds.size(); from += HIT_CHUNK_SIZE) {
+            productRepository.findAllById(validIds.subList(from, Math.min(validIds.size(), from + HIT_CHUNK_SIZE)))
+                    .forEach(product -> byId.put(product.getId(), product));
+        }
+        return validIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Hands every product to the consumer in id order without materializing the catalog.
+     */
+    @Transactional(readOnly = true)
+    public void exportProducts(Consumer<Product> consumer) {
+        productRepository.streamAll(consumer);
+    }
+
     @Transactional
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        catalogChangePublisher.productSaved(saved, ALL_FIELDS);
+        return saved;
     }
 
+    /**
+     * Replaces the editable fields in one UPDATE; the response and the change listeners get the
+     * updated product. A replacement identical to the stored product writes nothing.
+     */
     @Transactional
     public Optional<Product> updateProduct(Long id, Product source) {
-        return productRepository.findById(id).map(existing -> {
-            existing.setName(source.getName());
-            existing.setCategory(source.getCategory());
-            existing.setPrice(source.getPrice());
-            existing.setDescription(source.getDescription());
-            existing.setImageUrl(source.getImageUrl());
-            return productRepository.save(existing);
-        });
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("name", source.getName());
+        attributes.put("category", source.getCategory());
+        attributes.put("price", source.getPrice());
+        attributes.put("description", source.getDescription());
+        attributes.put("imageUrl", source.getImageUrl());
+        return updateAttributes(id, attributes);
     }
 
+    /**
+     * Writes only the supplied fields that differ from the stored ones in one UPDATE, so
+     * concurrent patches of different fields never overwrite each other.
+     */
     @Transactional
-    public Optional<Product> applyPartialUpdate(Long id, Consumer<Product> updater) {
-        return productRepository.findById(id).map(existing -> {
-            updater.accept(existing);
-            return productRepository.save(existing);
-        });
+    public Optional<Product> applyPartialUpdate(Long id, ProductPatch patch) {
+        Map<String, Object> attributes = patch.attributes();
+        if (attributes.isEmpty()) {
+            return getProductById(id);
+        }
+        return updateAttributes(id, attributes);
     }
 
-    @Transactional
-    public boolean deleteProduct(Long id) {
-        if (id == null || id <= 0 || !productRepository.existsById(id)) {
-            return false;
+    // Unchanged writes keep the version (and with it the ETag) and are not announced to listeners.
+    // The locking read keeps the row as read until commit, so the response is that row plus the
+    // changes and the version bump, without reading it back.
+    private Optional<Product> updateAttributes(Long id, Map<String, Object> attributes) {
+        if (id == null || id <= 0) {
+            return Optional.empty();
         }
-        productRepository.deleteById(id);
-        return true;
+        Optional<Product> current = productRepository.findForUpdate(id);
+        if (current.isEmpty()) {
+            return Optional.empty();
+        }
+        Product product = current.get();
+        Map<String, Object> changes = new LinkedHashMap<>();
+        attributes.forEach((attribute, value) -> {
+            if (!sameValue(attributeOf(product, attribute), value)) {
+                changes.put(attribute, value);
+            }
+        });
+        if (changes.isEmpty()) {
+            return current;
+        }
+        if (!productRepository.updateAttributes(id, changes)) {
+            return Optional.empty();
+        }
+        changes.forEach((attribute, value) -> setAttribute(product, attribute, value));
+        product.setVersion(product.getVersion() + 1);
+        catalogChangePublisher.productSaved(product, changes.keySet());
+        return current;
     }
 
-    private Specification<Product> buildSpecification(BigDecimal minPrice, BigDecimal maxPrice, String search) {
-        Specification<Product> spec = null;
+    private static Object attributeOf(Product product, String attribute) {
+        return switch (attribute) {
+            case "name" -> product.getName();
+            case "category" -> product.getCategory();
+            case "price" -> product.getPrice();
+            case "description" -> product.getDescription();
+            case "imageUrl" -> product.getImageUrl();
+            default -> throw new IllegalArgumentException("Unknown product attribute: " + attribute);
+        };
+    }
 
-        if (minPrice != null) {
-            BigDecimal min = minPrice;
-            Specification<Product> minSpec = (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), min);
-            spec = spec == null ? minSpec : spec.and(minSpec);
+    // The column keeps two decimals, so the response shows the price as it was stored.
+    private static void setAttribute(Product product, String attribute, Object value) {
+        switch (attribute) {
+            case "name" -> product.setName((String) value);
+            case "category" -> product.setCategory((String) value);
+            case "price" -> product.setPrice(((BigDecimal) value).setScale(2, RoundingMode.HALF_UP));
+            case "description" -> product.setDescription((String) value);
+            case "imageUrl" -> product.setImageUrl((String) value);
+            default -> throw new IllegalArgumentException("Unknown product attribute: " + attribute);
         }
+    }
 
-        if (maxPrice != null) {
-            BigDecimal max = maxPrice;
-            Specification<Product> maxSpec = (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), max);
-            spec = spec == null ? maxSpec : spec.and(maxSpec);
+    // Prices compare by value: 10.5 and 10.50 are the same price.
+    private static boolean sameValue(Object stored, Object value) {
+        if (stored instanceof BigDecimal storedPrice && value instanceof BigDecimal price) {
+            return storedPrice.compareTo(price) == 0;
         }
+        return Objects.equals(stored, value);
+    }
 
-        if (search != null) {
-            String like = "%" + search.toLowerCase() + "%";
-            Specification<Product> searchSpec = (root, query, cb) -> cb.or(
-                    cb.like(cb.lower(root.get("name")), like),
-                    cb.like(cb.lower(root.get("description")), like)
-            );
-            spec = spec == null ? searchSpec : spec.and(searchSpec);
+    @Transactional
+    public boolean deleteProduct(Long id) {
+        if (id == null || id <= 0) {
+            return false;
         }
-
-        return spec;
+        int deleted = productRepository.deleteAllByIdWithCounts(List.of(id))[0];
+        if (deleted == 0) {
+            return false;
+        }
+        catalogChangePublisher.productDeleted(id);
+        return true;
     }
 
-    private static final Set<String> ALLOWED_SORT_FIELDS = Set.of("id", "name", "price", "category");
+    private static final Set<String> ALL_FIELDS = Set.of("name", "category", "price", "description", "imageUrl");
 
-    private Sort resolveSort(String sortField, String sortDirection) {
-        String normalizedField = normalizeSortField(sortField);
-        if (normalizedField == null) {
-            return Sort.unsorted();
-        }
+    public static final Set<String> SELECTABLE_FIELDS = Set.of("id", "name", "category", "price", "description", "imageUrl");
 
-        Sort.Direction direction = normalizeSortDirection(sortDirection);
-        if (direction == null) {
-            direction = Sort.Direction.ASC;
-        }
-        return Sort.by(direction, normalizedField);
-    }
+    private static final Set<String> ALLOWED_SORT_FIELDS = ProductSpecifications.SORT_FIELDS;
+    private static final String RELEVANCE_SORT_FIELD = "relevance";
+    private static final int MAX_PAGE_SIZE = 200;
+    // Search hits and cached id lists are loaded in slices so no statement carries an unbounded IN list.
+    private static final int HIT_CHUNK_SIZE = 1000;
 
     private String normalizeSortField(String sortField) {
         if (sortField == null) {
@@ -157,7 +682,7 @@ public class ProductService {
             return null;
         }
         normalized = normalized.toLowerCase(Locale.ROOT);
-        if (!ALLOWED_SORT_FIELDS.contains(normalized)) {
+        if (!ALLOWED_SORT_FIELDS.contains(normalized) && !RELEVANCE_SORT_FIELD.equals(normalized)) {
             return null;
         }
         return normalized;
@@ -0,0 +1,61 @@
+package com.shop.product.service;
+
+import com.shop.product.model.Money;
+import com.shop.product.model.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * Filter and sort of catalog queries against the database, built once per request.
+ */
+final class ProductSpecifications {
+
+    static final Set<String> SORT_FIELDS = Set.of("id", "name", "price", "category");
+
+    private ProductSpecifications() {
+    }
+
+    /**
+     * The price bounds and LIKE search as one specification, or null when nothing filters.
+     */
+    static Specification<Product> filter(Money minPrice, Money maxPrice, String search) {
+        Specification<Product> spec = null;
+
+        if (minPrice != null) {
+            BigDecimal min = minPrice.toBigDecimal();
+            Specification<Product> minSpec = (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), min);
+            spec = spec == null ? minSpec : spec.and(minSpec);
+        }
+
+        if (maxPrice != null) {
+            BigDecimal max = maxPrice.toBigDecimal();
+            Specification<Product> maxSpec = (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), max);
+            spec = spec == null ? maxSpec : spec.and(maxSpec);
+        }
+
+        if (search != null) {
+            String like = "%" + search.toLowerCase() + "%";
+            Specification<Product> searchSpec = (root, query, cb) -> cb.or(
+                    cb.like(cb.lower(root.get("name")), like),
+                    cb.like(cb.lower(root.get("description")), like)
+            );
+            spec = spec == null ? searchSpec : spec.and(searchSpec);
+        }
+
+        return spec;
+    }
+
+    /**
+     * Sort on the field with id as tie-breaker; unsorted for null or unknown fields.
+     */
+    static Sort sort(String sortField, Sort.Direction direction) {
+        if (sortField == null || !SORT_FIELDS.contains(sortField)) {
+            return Sort.unsorted();
+        }
+        Sort sort = Sort.by(direction, sortField);
+        return "id".equals(sortField) ? sort : sort.and(Sort.by(direction, "id"));
+    }
+}
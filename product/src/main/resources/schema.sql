@@ -4,5 +4,40 @@ CREATE TABLE IF NOT EXISTS products (
     category VARCHAR(100) NOT NULL,
     price DECIMAL(12, 2) NOT NULL,
     description VARCHAR(500),
-    image_url VARCHAR(500)
+    image_url VARCHAR(500),
+    version BIGINT NOT NULL DEFAULT 0,
+    INDEX idx_products_price_id (price, id),
+    INDEX idx_products_name_id (name, id),
+    INDEX idx_products_category_id (category, id)
 );
+
+-- Revision behind the catalog ETag, bumped by every write transaction (see CatalogVersion). It starts
+-- at the creation time so a recreated database does not hand out the ETags of an earlier one.
+CREATE TABLE IF NOT EXISTS catalog_revision (
+    id TINYINT PRIMARY KEY,
+    revision BIGINT NOT NULL
+);
+INSERT IGNORE INTO catalog_revision (id, revision) VALUES (1, UNIX_TIMESTAMP() * 1000);
+
+-- Tables created before these indexes existed only get them here: CREATE TABLE IF NOT EXISTS leaves
+-- an existing table alone, and MySQL has no CREATE INDEX IF NOT EXISTS.
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_products_price_id ON products (price, id)', 'SELECT 1')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'products' AND index_name = 'idx_products_price_id');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_products_name_id ON products (name, id)', 'SELECT 1')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'products' AND index_name = 'idx_products_name_id');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_products_category_id ON products (category, id)', 'SELECT 1')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'products' AND index_name = 'idx_products_category_id');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;